@@ -2,9 +2,11 @@ package no.sikt.nva.pubchannels.channelregistry;
 
 import static java.net.HttpURLConnection.HTTP_BAD_REQUEST;
 import static java.net.HttpURLConnection.HTTP_CREATED;
+import static java.net.HttpURLConnection.HTTP_INTERNAL_ERROR;
 import static java.net.HttpURLConnection.HTTP_MOVED_PERM;
 import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
 import static java.net.HttpURLConnection.HTTP_OK;
+import static java.util.Objects.nonNull;
 import static no.sikt.nva.pubchannels.HttpHeaders.ACCEPT;
 import static no.sikt.nva.pubchannels.HttpHeaders.AUTHORIZATION;
 import static no.sikt.nva.pubchannels.HttpHeaders.CONTENT_TYPE;
@@ -14,7 +16,9 @@ import static no.sikt.nva.pubchannels.channelregistry.ChannelType.SERIAL_PUBLICA
 import static no.unit.nva.commons.json.JsonUtils.dtoObjectMapper;
 import static nva.commons.core.attempt.Try.attempt;
 
+import com.fasterxml.jackson.databind.ObjectReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
@@ -22,14 +26,27 @@ import java.net.http.HttpRequest.BodyPublishers;
 import java.net.http.HttpResponse;
 import java.net.http.HttpResponse.BodyHandlers;
 import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Year;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import no.sikt.nva.pubchannels.channelregistry.model.create.ChannelRegistryCreatePublisherRequest;
 import no.sikt.nva.pubchannels.channelregistry.model.create.ChannelRegistryCreateSerialPublicationRequest;
 import no.sikt.nva.pubchannels.channelregistry.model.create.CreateChannelResponse;
 import no.sikt.nva.pubchannels.dataporten.DataportenAuthClient;
+import no.sikt.nva.pubchannels.handler.AsyncPublicationChannelFetchClient;
+import no.sikt.nva.pubchannels.handler.AsyncPublicationChannelSearchCreateClient;
 import no.sikt.nva.pubchannels.handler.AuthClient;
 import no.sikt.nva.pubchannels.handler.PublicationChannelClient;
 import no.sikt.nva.pubchannels.handler.ScientificValue;
@@ -43,45 +60,90 @@ import nva.commons.apigateway.exceptions.NotFoundException;
 import nva.commons.apigateway.exceptions.UnauthorizedException;
 import nva.commons.core.Environment;
 import nva.commons.core.JacocoGenerated;
+import nva.commons.core.attempt.Failure;
 import nva.commons.core.paths.UriWrapper;
 import nva.commons.secrets.SecretsReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 @SuppressWarnings("PMD.GodClass")
-public class ChannelRegistryClient implements PublicationChannelClient {
+public class ChannelRegistryClient
+    implements PublicationChannelClient,
+        AsyncPublicationChannelFetchClient,
+        AsyncPublicationChannelSearchCreateClient {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(ChannelRegistryClient.class);
   private static final String ENV_CHANNEL_REGISTRY_BASE_URL =
       "DATAPORTEN_CHANNEL_REGISTRY_BASE_URL";
+  private static final String ENV_HEDGING_ENABLED = "CHANNEL_REGISTRY_HEDGING_ENABLED";
   private static final String SEARCH_PATH_ELEMENT = "channels";
   private static final String ADMIN_PATH_ELEMENT = "admin";
   private static final String DELETE_PID_PATH_ELEMENT = "delete-pid";
   private static final String UPSTREAM_RESPONSE_LOG_FORMAT = "Channel registry responded with: {}";
   private static final String UPSTREAM_UNEXPECTED_RESPONSE = "Unexpected response from upstream!";
   private static final String UPSTREAM_REJECTED_REQUEST = "Channel registry rejected the request!";
+  private static final String CHANNEL_REGISTRY_UNAVAILABLE = "Channel registry is unavailable!";
   private static final int ONE_HUNDRED = 100;
   private static final int FOUR = 4;
   private static final int FIVE = 5;
   private static final String SECRET_NAME = "DataportenChannelRegistryClientCredentials";
   // Must be lower than Lambda timeout to allow graceful error handling and logging
   private static final Duration HTTP_REQUEST_TIMEOUT = Duration.ofSeconds(20);
+  private static final Map<Class<?>, ObjectReader> RESPONSE_READERS = createResponseReaders();
   private final HttpClient httpClient;
   private final URI channelRegistryBaseUri;
   private final AuthClient authClient;
+  private final CircuitBreaker circuitBreaker;
+  private final HedgingPolicy hedgingPolicy;
 
   public ChannelRegistryClient(
       HttpClient httpClient, URI channelRegistryBaseUri, AuthClient authClient) {
+    this(httpClient, channelRegistryBaseUri, authClient, CircuitBreaker.defaultInstance());
+  }
+
+  public ChannelRegistryClient(
+      HttpClient httpClient,
+      URI channelRegistryBaseUri,
+      AuthClient authClient,
+      CircuitBreaker circuitBreaker) {
+    this(
+        httpClient,
+        channelRegistryBaseUri,
+        authClient,
+        circuitBreaker,
+        HedgingPolicy.disabled());
+  }
+
+  public ChannelRegistryClient(
+      HttpClient httpClient,
+      URI channelRegistryBaseUri,
+      AuthClient authClient,
+      CircuitBreaker circuitBreaker,
+      HedgingPolicy hedgingPolicy) {
     this.httpClient = httpClient;
     this.channelRegistryBaseUri = channelRegistryBaseUri;
     this.authClient = authClient;
+    this.circuitBreaker = circuitBreaker;
+    this.hedgingPolicy = hedgingPolicy;
   }
 
   @JacocoGenerated // only used when running on AWS
-  public static PublicationChannelClient defaultInstance() {
+  public static ChannelRegistryClient defaultInstance() {
     var environment = new Environment();
     var baseUri = URI.create(environment.readEnv(ENV_CHANNEL_REGISTRY_BASE_URL));
-    return new ChannelRegistryClient(HttpClient.newBuilder().build(), baseUri, null);
+    var hedgingPolicy =
+        environment
+                .readEnvOpt(ENV_HEDGING_ENABLED)
+                .map(Boolean::parseBoolean)
+                .orElse(false)
+            ? HedgingPolicy.defaultInstance()
+            : HedgingPolicy.disabled();
+    return new ChannelRegistryClient(
+        HttpClient.newBuilder().build(),
+        baseUri,
+        null,
+        CircuitBreaker.defaultInstance(),
+        hedgingPolicy);
   }
 
   @JacocoGenerated // only used when running on AWS
@@ -100,10 +162,9 @@ public class ChannelRegistryClient implements PublicationChannelClient {
   public ThirdPartyPublicationChannel getChannel(RequestObject requestObject)
       throws ApiGatewayException {
     var request = createFetchPublicationChannelRequest(requestObject);
-    return attempt(
-            () -> executeRequest(request, requestObject.channelType().getFetchResponseClass()))
-        .orElseThrow(
-            failure -> logAndCreateBadGatewayException(request.uri(), failure.getException()));
+    var responseClass = requestObject.channelType().getFetchResponseClass();
+    return executeGuardedRequest(
+        request, () -> readResponse(request, sendHedged(request), responseClass));
   }
 
   @Override
@@ -111,9 +172,7 @@ public class ChannelRegistryClient implements PublicationChannelClient {
       ChannelType type, Map<String, String> queryParameters) throws ApiGatewayException {
     var request =
         createFindPublicationChannelRequest(type.channelRegistryPathElement, queryParameters);
-    return attempt(() -> executeRequest(request, type.searchResponseClass))
-        .orElseThrow(
-            failure -> logAndCreateBadGatewayException(request.uri(), failure.getException()));
+    return executeGuardedRequest(request, () -> executeRequest(request, type.searchResponseClass));
   }
 
   @Override
@@ -176,6 +235,53 @@ public class ChannelRegistryClient implements PublicationChannelClient {
     failOnWriteErrorStatus(response);
   }
 
+  @Override
+  public CompletableFuture<ThirdPartyPublicationChannel> getChannelAsync(
+      RequestObject requestObject) {
+    var request = createFetchPublicationChannelRequest(requestObject);
+    return executeGuardedRequestAsync(
+        request, requestObject.channelType().getFetchResponseClass());
+  }
+
+  @Override
+  public CompletableFuture<ThirdPartySearchResponse> searchChannelAsync(
+      ChannelType type, Map<String, String> queryParameters) {
+    var request =
+        createFindPublicationChannelRequest(type.channelRegistryPathElement, queryParameters);
+    return executeGuardedRequestAsync(request, type.searchResponseClass);
+  }
+
+  @Override
+  public CompletableFuture<CreateChannelResponse> createJournalAsync(
+      ChannelRegistryCreateSerialPublicationRequest body) {
+    return attempt(authClient::getToken)
+        .map(token -> createCreateJournalRequest(token, body))
+        .map(request -> executeRequestAsync(request, CreateChannelResponse.class))
+        .orElse(ChannelRegistryClient::failedFuture);
+  }
+
+  @Override
+  public CompletableFuture<CreateChannelResponse> createPublisherAsync(
+      ChannelRegistryCreatePublisherRequest body) {
+    return attempt(authClient::getToken)
+        .map(token -> createCreatePublisherRequest(token, body))
+        .map(request -> executeRequestAsync(request, CreateChannelResponse.class))
+        .orElse(ChannelRegistryClient::failedFuture);
+  }
+
+  @Override
+  public CompletableFuture<CreateChannelResponse> createSeriesAsync(
+      ChannelRegistryCreateSerialPublicationRequest body) {
+    return attempt(authClient::getToken)
+        .map(token -> createCreateSeriesRequest(token, body))
+        .map(request -> executeRequestAsync(request, CreateChannelResponse.class))
+        .orElse(ChannelRegistryClient::failedFuture);
+  }
+
+  private static <T> CompletableFuture<T> failedFuture(Failure<CompletableFuture<T>> failure) {
+    return CompletableFuture.failedFuture(failure.getException());
+  }
+
   private static void failOnWriteErrorStatus(HttpResponse<String> response)
       throws ApiGatewayException {
     if (response.statusCode() / ONE_HUNDRED == FOUR) {
@@ -203,13 +309,24 @@ public class ChannelRegistryClient implements PublicationChannelClient {
     var identifier = request.fields().pid().toUpperCase(Locale.getDefault());
     return switch (request.type()) {
       case "publisher" ->
-          getChannel(new RequestObject(PUBLISHER, identifier, Year.now().toString()));
+          getChannelForUpdate(new RequestObject(PUBLISHER, identifier, Year.now().toString()));
       case "serial-publication" ->
-          getChannel(new RequestObject(SERIAL_PUBLICATION, identifier, Year.now().toString()));
+          getChannelForUpdate(
+              new RequestObject(SERIAL_PUBLICATION, identifier, Year.now().toString()));
       default -> throw new BadRequestException("Unsupported channel type: " + request.type());
     };
   }
 
+  // Updates are not guarded by the circuit breaker, and neither is the read they depend on
+  private ThirdPartyPublicationChannel getChannelForUpdate(RequestObject requestObject)
+      throws ApiGatewayException {
+    var request = createFetchPublicationChannelRequest(requestObject);
+    var responseClass = requestObject.channelType().getFetchResponseClass();
+    return attempt(() -> executeRequest(request, responseClass))
+        .orElseThrow(
+            failure -> logAndCreateBadGatewayException(request.uri(), failure.getException()));
+  }
+
   private HttpRequest createChangeChannelRequest(
       ChannelRegistryUpdateChannelRequest request, String token) {
     return HttpRequest.newBuilder()
@@ -222,30 +339,210 @@ public class ChannelRegistryClient implements PublicationChannelClient {
         .build();
   }
 
+  private <T> T executeGuardedRequest(HttpRequest request, Callable<T> call)
+      throws ApiGatewayException {
+    if (!circuitBreaker.tryAcquirePermission()) {
+      LOGGER.warn("Circuit to channel registry is open, not requesting: {}", request.uri());
+      throw new BadGatewayException(CHANNEL_REGISTRY_UNAVAILABLE);
+    }
+    var startTime = System.nanoTime();
+    try {
+      var result =
+          attempt(call)
+              .orElseThrow(
+                  failure ->
+                      logAndCreateBadGatewayException(request.uri(), failure.getException()));
+      circuitBreaker.recordSuccess(Duration.ofNanos(System.nanoTime() - startTime));
+      return result;
+    } catch (ApiGatewayException e) {
+      recordFailedRequest(e, Duration.ofNanos(System.nanoTime() - startTime));
+      throw e;
+    }
+  }
+
+  private void recordFailedRequest(ApiGatewayException exception, Duration elapsed) {
+    if (exception.getStatusCode() >= HTTP_INTERNAL_ERROR) {
+      circuitBreaker.recordFailure();
+    } else {
+      circuitBreaker.recordSuccess(elapsed);
+    }
+  }
+
+  private <T> CompletableFuture<T> executeGuardedRequestAsync(
+      HttpRequest request, Class<? extends T> clazz) {
+    if (!circuitBreaker.tryAcquirePermission()) {
+      LOGGER.warn("Circuit to channel registry is open, not requesting: {}", request.uri());
+      return CompletableFuture.failedFuture(
+          new BadGatewayException(CHANNEL_REGISTRY_UNAVAILABLE));
+    }
+    var startTime = System.nanoTime();
+    return this.<T>executeRequestAsync(request, clazz)
+        .whenComplete(
+            (result, error) -> {
+              var elapsed = Duration.ofNanos(System.nanoTime() - startTime);
+              if (error instanceof ApiGatewayException apiGatewayException) {
+                recordFailedRequest(apiGatewayException, elapsed);
+              } else {
+                circuitBreaker.recordSuccess(elapsed);
+              }
+            });
+  }
+
+  private <T> CompletableFuture<T> executeRequestAsync(
+      HttpRequest request, Class<? extends T> clazz) {
+    var result = new CompletableFuture<T>();
+    httpClient
+        .sendAsync(request, BodyHandlers.ofInputStream())
+        .whenCompleteAsync(
+            (response, error) -> {
+              if (error != null) {
+                result.completeExceptionally(
+                    logAndCreateBadGatewayException(request.uri(), unwrap(error)));
+                return;
+              }
+              try {
+                result.complete(readResponse(request, response, clazz));
+              } catch (ApiGatewayException e) {
+                result.completeExceptionally(e);
+              } catch (IOException | RuntimeException e) {
+                result.completeExceptionally(logAndCreateBadGatewayException(request.uri(), e));
+              }
+            });
+    return result;
+  }
+
+  private static Exception unwrap(Throwable error) {
+    var cause =
+        error instanceof CompletionException && error.getCause() != null
+            ? error.getCause()
+            : error;
+    return cause instanceof Exception exception ? exception : new CompletionException(cause);
+  }
+
   private <T> T executeRequest(HttpRequest request, Class<T> clazz)
       throws ApiGatewayException, IOException, InterruptedException {
-    var response = httpClient.send(request, BodyHandlers.ofString());
+    return readResponse(request, httpClient.send(request, BodyHandlers.ofInputStream()), clazz);
+  }
 
-    if (!isSuccessStatus(response.statusCode())) {
-      handleError(request.uri(), response);
+  private <T> T readResponse(
+      HttpRequest request, HttpResponse<InputStream> response, Class<T> clazz)
+      throws ApiGatewayException, IOException {
+    try (var body = response.body()) {
+      if (!isSuccessStatus(response.statusCode())) {
+        handleError(
+            request.uri(), response, new String(body.readAllBytes(), StandardCharsets.UTF_8));
+      }
+      return responseReaderFor(clazz).readValue(body);
     }
+  }
+
+  private static ObjectReader responseReaderFor(Class<?> clazz) {
+    var reader = RESPONSE_READERS.get(clazz);
+    return nonNull(reader) ? reader : dtoObjectMapper.readerFor(clazz);
+  }
+
+  private static Map<Class<?>, ObjectReader> createResponseReaders() {
+    var readers = new HashMap<Class<?>, ObjectReader>();
+    for (var type : ChannelType.values()) {
+      readers.put(type.fetchResponseClass, dtoObjectMapper.readerFor(type.fetchResponseClass));
+      readers.put(type.searchResponseClass, dtoObjectMapper.readerFor(type.searchResponseClass));
+    }
+    readers.put(
+        CreateChannelResponse.class, dtoObjectMapper.readerFor(CreateChannelResponse.class));
+    return Map.copyOf(readers);
+  }
+
+  private HttpResponse<InputStream> sendHedged(HttpRequest request)
+      throws IOException, InterruptedException {
+    var hedgeDelay = hedgingPolicy.startRequest();
+    var startTime = System.nanoTime();
+    var response =
+        hedgeDelay.isPresent()
+            ? sendWithHedge(request, hedgeDelay.get())
+            : httpClient.send(request, BodyHandlers.ofInputStream());
+    hedgingPolicy.recordLatency(Duration.ofNanos(System.nanoTime() - startTime));
+    return response;
+  }
+
+  private HttpResponse<InputStream> sendWithHedge(HttpRequest request, Duration hedgeDelay)
+      throws IOException, InterruptedException {
+    var primary = httpClient.sendAsync(request, BodyHandlers.ofInputStream());
+    try {
+      return primary.get(hedgeDelay.toNanos(), TimeUnit.NANOSECONDS);
+    } catch (TimeoutException e) {
+      return awaitPrimaryOrHedge(request, primary, hedgeDelay);
+    } catch (ExecutionException e) {
+      throw asIoException(e.getCause());
+    }
+  }
+
+  private HttpResponse<InputStream> awaitPrimaryOrHedge(
+      HttpRequest request,
+      CompletableFuture<HttpResponse<InputStream>> primary,
+      Duration hedgeDelay)
+      throws IOException, InterruptedException {
+    var response = primary;
+    if (hedgingPolicy.tryAcquireHedge()) {
+      LOGGER.info("Hedging request to channel registry after {}: {}", hedgeDelay, request.uri());
+      var hedge = httpClient.sendAsync(request, BodyHandlers.ofInputStream());
+      response = firstSuccessful(primary, hedge, ChannelRegistryClient::discardBody);
+    }
+    try {
+      return response.get();
+    } catch (ExecutionException e) {
+      throw asIoException(e.getCause());
+    }
+  }
+
+  private static void discardBody(HttpResponse<InputStream> response) {
+    try {
+      response.body().close();
+    } catch (IOException e) {
+      LOGGER.debug("Could not close body of discarded response", e);
+    }
+  }
+
+  private static <T> CompletableFuture<T> firstSuccessful(
+      CompletableFuture<T> first, CompletableFuture<T> second, Consumer<T> discardLoser) {
+    var result = new CompletableFuture<T>();
+    var failures = new AtomicInteger();
+    for (var future : List.of(first, second)) {
+      future.whenComplete(
+          (value, error) -> {
+            if (error == null) {
+              if (!result.complete(value)) {
+                discardLoser.accept(value);
+              }
+            } else if (failures.incrementAndGet() == 2) {
+              result.completeExceptionally(error);
+            }
+          });
+    }
+    result.whenComplete(
+        (value, error) -> {
+          first.cancel(true);
+          second.cancel(true);
+        });
+    return result;
+  }
 
-    return attempt(() -> dtoObjectMapper.readValue(response.body(), clazz)).orElseThrow();
+  private static IOException asIoException(Throwable cause) {
+    return cause instanceof IOException ioException ? ioException : new IOException(cause);
   }
 
   private static boolean isSuccessStatus(int statusCode) {
     return statusCode == HTTP_OK || statusCode == HTTP_CREATED;
   }
 
-  private void handleError(URI requestedUri, HttpResponse<String> response)
+  private void handleError(URI requestedUri, HttpResponse<?> response, String body)
       throws ApiGatewayException {
     var statusCode = response.statusCode();
     if (HTTP_NOT_FOUND == statusCode) {
-      LOGGER.info("Publication channel not found: {} {}", requestedUri, response.body());
+      LOGGER.info("Publication channel not found: {} {}", requestedUri, body);
       throw new NotFoundException("Publication channel not found!");
     }
     if (HTTP_BAD_REQUEST == statusCode) {
-      throw new BadRequestException(response.body());
+      throw new BadRequestException(body);
     }
     if (HTTP_MOVED_PERM == statusCode) {
       var location = response.headers().map().get("Location").getFirst();
@@ -253,8 +550,7 @@ public class ChannelRegistryClient implements PublicationChannelClient {
       throw new PublicationChannelMovedException(
           "Publication channel moved permanently!", URI.create(location));
     }
-    LOGGER.error(
-        "Error fetching publication channel: {} {} {}", requestedUri, statusCode, response.body());
+    LOGGER.error("Error fetching publication channel: {} {} {}", requestedUri, statusCode, body);
     throw new BadGatewayException("Unexpected response from upstream!");
   }
 
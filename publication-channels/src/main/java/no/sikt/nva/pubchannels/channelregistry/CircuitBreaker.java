@@ -0,0 +1,159 @@
+package no.sikt.nva.pubchannels.channelregistry;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Count based circuit breaker. Calls that fail or take longer than the slow call threshold are
+ * counted as failures. When the failure rate of the last {@code windowSize} calls reaches the
+ * threshold the circuit opens and rejects calls until the open duration has passed. A single probe
+ * call is then let through, closing the circuit on success and opening it again on failure.
+ */
+public class CircuitBreaker {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(CircuitBreaker.class);
+  private static final int DEFAULT_WINDOW_SIZE = 20;
+  private static final double DEFAULT_FAILURE_RATE_THRESHOLD = 0.5;
+  private static final Duration DEFAULT_SLOW_CALL_THRESHOLD = Duration.ofSeconds(5);
+  private static final Duration DEFAULT_OPEN_DURATION = Duration.ofSeconds(30);
+  private final int windowSize;
+  private final double failureRateThreshold;
+  private final Duration slowCallThreshold;
+  private final Duration openDuration;
+  private final Clock clock;
+  private final boolean[] window;
+  private final ReentrantLock lock = new ReentrantLock();
+  private int position;
+  private int recordedCalls;
+  private int failedCalls;
+  private State state = State.CLOSED;
+  private Instant openedAt = Instant.MIN;
+  private boolean probeInFlight;
+
+  public CircuitBreaker(
+      int windowSize,
+      double failureRateThreshold,
+      Duration slowCallThreshold,
+      Duration openDuration,
+      Clock clock) {
+    this.windowSize = windowSize;
+    this.failureRateThreshold = failureRateThreshold;
+    this.slowCallThreshold = slowCallThreshold;
+    this.openDuration = openDuration;
+    this.clock = clock;
+    this.window = new boolean[windowSize];
+  }
+
+  public static CircuitBreaker defaultInstance() {
+    return new CircuitBreaker(
+        DEFAULT_WINDOW_SIZE,
+        DEFAULT_FAILURE_RATE_THRESHOLD,
+        DEFAULT_SLOW_CALL_THRESHOLD,
+        DEFAULT_OPEN_DURATION,
+        Clock.systemUTC());
+  }
+
+  public boolean tryAcquirePermission() {
+    lock.lock();
+    try {
+      return switch (state) {
+        case CLOSED -> true;
+        case OPEN -> startProbeWhenOpenDurationHasPassed();
+        case HALF_OPEN -> startProbe();
+      };
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public void recordSuccess(Duration elapsed) {
+    record(elapsed.compareTo(slowCallThreshold) >= 0);
+  }
+
+  public void recordFailure() {
+    record(true);
+  }
+
+  public State getState() {
+    lock.lock();
+    try {
+      return state;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private boolean startProbeWhenOpenDurationHasPassed() {
+    if (clock.instant().isBefore(openedAt.plus(openDuration))) {
+      return false;
+    }
+    state = State.HALF_OPEN;
+    return startProbe();
+  }
+
+  private boolean startProbe() {
+    if (probeInFlight) {
+      return false;
+    }
+    probeInFlight = true;
+    return true;
+  }
+
+  private void record(boolean failed) {
+    lock.lock();
+    try {
+      switch (state) {
+        case CLOSED -> recordInWindow(failed);
+        case HALF_OPEN -> completeProbe(failed);
+        case OPEN -> {
+          // Result of a call started before the circuit opened
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void recordInWindow(boolean failed) {
+    if (recordedCalls == windowSize) {
+      failedCalls -= window[position] ? 1 : 0;
+    } else {
+      recordedCalls++;
+    }
+    window[position] = failed;
+    failedCalls += failed ? 1 : 0;
+    position = (position + 1) % windowSize;
+    if (recordedCalls == windowSize && failedCalls >= failureRateThreshold * windowSize) {
+      open();
+    }
+  }
+
+  private void completeProbe(boolean failed) {
+    probeInFlight = false;
+    if (failed) {
+      open();
+    } else {
+      LOGGER.info("Closing circuit to channel registry");
+      state = State.CLOSED;
+      recordedCalls = 0;
+      failedCalls = 0;
+      position = 0;
+    }
+  }
+
+  private void open() {
+    LOGGER.warn("Opening circuit to channel registry for {}", openDuration);
+    state = State.OPEN;
+    openedAt = clock.instant();
+  }
+
+  public enum State {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+  }
+}
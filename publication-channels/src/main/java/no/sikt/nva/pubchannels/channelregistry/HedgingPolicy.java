@@ -0,0 +1,120 @@
+package no.sikt.nva.pubchannels.channelregistry;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Decides when a second, hedged request should be sent. The delay is a percentile of the most
+ * recent response times, and the number of hedged requests is capped by a budget relative to the
+ * number of requests.
+ */
+public class HedgingPolicy {
+
+  private static final int DEFAULT_SAMPLE_SIZE = 200;
+  private static final int DEFAULT_MINIMUM_SAMPLES = 20;
+  private static final double DEFAULT_PERCENTILE = 0.95;
+  private static final Duration DEFAULT_MINIMUM_DELAY = Duration.ofMillis(50);
+  private static final double DEFAULT_BUDGET_RATIO = 0.05;
+  private final boolean enabled;
+  private final double percentile;
+  private final int minimumSamples;
+  private final Duration minimumDelay;
+  private final double budgetRatio;
+  private final long[] samples;
+  private final ReentrantLock lock = new ReentrantLock();
+  private int position;
+  private int sampleCount;
+  private long requests;
+  private long hedges;
+
+  public HedgingPolicy(
+      int sampleSize,
+      int minimumSamples,
+      double percentile,
+      Duration minimumDelay,
+      double budgetRatio) {
+    this(true, sampleSize, minimumSamples, percentile, minimumDelay, budgetRatio);
+  }
+
+  private HedgingPolicy(
+      boolean enabled,
+      int sampleSize,
+      int minimumSamples,
+      double percentile,
+      Duration minimumDelay,
+      double budgetRatio) {
+    this.enabled = enabled;
+    this.percentile = percentile;
+    this.minimumSamples = minimumSamples;
+    this.minimumDelay = minimumDelay;
+    this.budgetRatio = budgetRatio;
+    this.samples = new long[sampleSize];
+  }
+
+  public static HedgingPolicy defaultInstance() {
+    return new HedgingPolicy(
+        DEFAULT_SAMPLE_SIZE,
+        DEFAULT_MINIMUM_SAMPLES,
+        DEFAULT_PERCENTILE,
+        DEFAULT_MINIMUM_DELAY,
+        DEFAULT_BUDGET_RATIO);
+  }
+
+  public static HedgingPolicy disabled() {
+    return new HedgingPolicy(false, 1, 0, 0, Duration.ZERO, 0);
+  }
+
+  /** Registers a new request and returns how long to wait before hedging it, if at all. */
+  public Optional<Duration> startRequest() {
+    if (!enabled) {
+      return Optional.empty();
+    }
+    lock.lock();
+    try {
+      requests++;
+      return sampleCount < minimumSamples ? Optional.empty() : Optional.of(currentDelay());
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public boolean tryAcquireHedge() {
+    lock.lock();
+    try {
+      if (hedges + 1 > requests * budgetRatio) {
+        return false;
+      }
+      hedges++;
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public void recordLatency(Duration latency) {
+    if (!enabled) {
+      return;
+    }
+    lock.lock();
+    try {
+      samples[position] = latency.toNanos();
+      position = (position + 1) % samples.length;
+      sampleCount = Math.min(sampleCount + 1, samples.length);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private Duration currentDelay() {
+    if (sampleCount == 0) {
+      return minimumDelay;
+    }
+    var sorted = Arrays.copyOf(samples, sampleCount);
+    Arrays.sort(sorted);
+    var index = (int) Math.ceil(percentile * sampleCount) - 1;
+    var delay = Duration.ofNanos(sorted[Math.max(index, 0)]);
+    return delay.compareTo(minimumDelay) < 0 ? minimumDelay : delay;
+  }
+}
@@ -1,9 +1,8 @@
 package no.sikt.nva.pubchannels.channelregistrycache;
 
+import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 
-import com.opencsv.bean.CsvBindByName;
-import com.opencsv.bean.CsvCustomBindByName;
 import java.net.URI;
 import java.time.LocalDate;
 import java.util.List;
@@ -23,33 +22,39 @@ import nva.commons.core.JacocoGenerated;
 public class ChannelRegistryCacheEntry {
 
   public static final String NULL = "0";
-
-  @CsvBindByName(column = "PID")
-  private UUID pid;
-
-  @CsvBindByName(column = "type")
-  private String type;
-
-  @CsvBindByName(column = "Original tittel")
-  private String originalTitle;
-
-  @CsvBindByName(column = "Print ISSN")
-  private String printIssn;
-
-  @CsvBindByName(column = "Online ISSN")
-  private String onlineIssn;
-
-  @CsvBindByName(column = "ISBN-prefiks")
-  private String isbn;
-
-  @CsvBindByName(column = "Nedlagt")
-  private String ceased;
-
-  @CsvCustomBindByName(column = "Nivåhistorikk", converter = LevelForYearConverter.class)
-  private List<LevelForYear> levelHistory;
-
-  @CsvBindByName(column = "KURL")
-  private String uri;
+  public static final String PID_COLUMN = "PID";
+  public static final String TYPE_COLUMN = "type";
+  public static final String ORIGINAL_TITLE_COLUMN = "Original tittel";
+  public static final String PRINT_ISSN_COLUMN = "Print ISSN";
+  public static final String ONLINE_ISSN_COLUMN = "Online ISSN";
+  public static final String ISBN_COLUMN = "ISBN-prefiks";
+  public static final String CEASED_COLUMN = "Nedlagt";
+  public static final String LEVEL_HISTORY_COLUMN = "Nivåhistorikk";
+  public static final String URI_COLUMN = "KURL";
+
+  private final UUID pid;
+  private final String type;
+  private final String originalTitle;
+  private final String printIssn;
+  private final String onlineIssn;
+  private final String isbn;
+  private final String ceased;
+  private final List<LevelForYear> levelHistory;
+  private final String uri;
+  private final LevelIndex levelIndex;
+
+  private ChannelRegistryCacheEntry(Builder builder) {
+    this.pid = builder.pid;
+    this.type = builder.type;
+    this.originalTitle = builder.originalTitle;
+    this.printIssn = builder.printIssn;
+    this.onlineIssn = builder.onlineIssn;
+    this.isbn = builder.isbn;
+    this.ceased = builder.ceased;
+    this.levelHistory = builder.levelHistory;
+    this.uri = builder.uri;
+    this.levelIndex = LevelIndex.of(builder.levelHistory);
+  }
 
   public static Builder builder() {
     return new Builder();
@@ -82,6 +87,16 @@ public class ChannelRegistryCacheEntry {
     return type;
   }
 
+  public boolean isOfType(ChannelType channelType) {
+    var kind = isNull(type) ? "" : type.trim().toLowerCase(Locale.ROOT);
+    return switch (channelType) {
+      case JOURNAL -> isJournal(kind);
+      case SERIES -> isSeries(kind);
+      case SERIAL_PUBLICATION -> isJournal(kind) || isSeries(kind);
+      case PUBLISHER -> "forlag".equals(kind) || "publisher".equals(kind);
+    };
+  }
+
   @JacocoGenerated
   public String getOriginalTitle() {
     return originalTitle;
@@ -179,16 +194,17 @@ public class ChannelRegistryCacheEntry {
   }
 
   private ChannelRegistryLevel getChannelRegistryLevel(String year) {
+    var parsedYear = Integer.parseInt(year);
     return new ChannelRegistryLevel(
-        Integer.parseInt(year), getLevelForYear(year), null, null, null);
+        parsedYear, levelIndex.levelFor(parsedYear), null, null, null);
+  }
+
+  private static boolean isJournal(String kind) {
+    return "tidsskrift".equals(kind) || "journal".equals(kind);
   }
 
-  private String getLevelForYear(String year) {
-    return getLevelHistory().stream()
-        .filter(levelForYear -> levelForYear.year().equals(year))
-        .map(LevelForYear::level)
-        .findFirst()
-        .orElse(null);
+  private static boolean isSeries(String kind) {
+    return "serie".equals(kind) || "series".equals(kind);
   }
 
   public static final class Builder {
@@ -251,17 +267,7 @@ public class ChannelRegistryCacheEntry {
     }
 
     public ChannelRegistryCacheEntry build() {
-      ChannelRegistryCacheEntry channelRegistryCacheEntry = new ChannelRegistryCacheEntry();
-      channelRegistryCacheEntry.printIssn = this.printIssn;
-      channelRegistryCacheEntry.type = this.type;
-      channelRegistryCacheEntry.isbn = this.isbn;
-      channelRegistryCacheEntry.levelHistory = this.levelHistory;
-      channelRegistryCacheEntry.uri = this.uri;
-      channelRegistryCacheEntry.originalTitle = this.originalTitle;
-      channelRegistryCacheEntry.ceased = this.ceased;
-      channelRegistryCacheEntry.onlineIssn = this.onlineIssn;
-      channelRegistryCacheEntry.pid = this.pid;
-      return channelRegistryCacheEntry;
+      return new ChannelRegistryCacheEntry(this);
     }
   }
 }
@@ -1,22 +1,29 @@
 package no.sikt.nva.pubchannels.channelregistrycache;
 
-import com.opencsv.bean.CsvToBeanBuilder;
-import com.opencsv.enums.CSVReaderNullFieldIndicator;
-import java.io.StringReader;
+import static java.util.Objects.isNull;
+import static nva.commons.core.attempt.Try.attempt;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 import java.util.stream.Stream;
-import software.amazon.awssdk.core.sync.ResponseTransformer;
+import nva.commons.core.attempt.Failure;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
 
 public final class ChannelRegistryCsvLoader {
 
-  private static final int HEADER_POSITION = 1;
   private static final int MAX_LOG_LENGTH = 150;
   private final S3Client s3Client;
 
@@ -25,8 +32,9 @@ public final class ChannelRegistryCsvLoader {
   }
 
   public LoadResult getEntries() {
-    var value = s3Client.getObject(getCacheRequest(), ResponseTransformer.toBytes()).asUtf8String();
-    return parseCsv(value);
+    var inputStream = s3Client.getObject(getCacheRequest());
+    var reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+    return parseCsv(reader);
   }
 
   public record LoadResult(Stream<ChannelRegistryCacheEntry> entries, Supplier<String> report) {}
@@ -38,51 +46,84 @@ public final class ChannelRegistryCsvLoader {
         .build();
   }
 
-  private LoadResult parseCsv(String value) {
-    var lines = value.lines().toList();
-    if (lines.isEmpty()) {
+  private LoadResult parseCsv(BufferedReader reader) {
+    var header = attempt(reader::readLine).orElseThrow(failure -> closeAfter(reader, failure));
+    if (isNull(header)) {
+      close(reader);
       return new LoadResult(Stream.of(), () -> "No data");
     }
+    var rowMapper =
+        attempt(() -> ChannelRegistryCsvRowMapper.fromHeader(header))
+            .orElseThrow(failure -> closeAfter(reader, failure));
 
-    var header = lines.getFirst();
     var failures = new ConcurrentHashMap<Integer, FailureInfo>();
-    var totalLines = lines.size() - HEADER_POSITION;
+    var lineCounter = new AtomicInteger(0);
+    var mappingNanos = new AtomicLong();
 
     var stream =
-        IntStream.range(1, lines.size())
-            .parallel()
-            .mapToObj(i -> processLine(Map.entry(i, lines.get(i).trim()), header, failures))
-            .filter(java.util.Objects::nonNull);
-
-    Supplier<String> reportSupplier = () -> generateReport(failures, totalLines);
+        reader
+            .lines()
+            .map(
+                line ->
+                    processLine(
+                        Map.entry(lineCounter.incrementAndGet(), line.trim()),
+                        rowMapper,
+                        failures,
+                        mappingNanos))
+            .filter(Objects::nonNull)
+            .onClose(() -> close(reader));
+
+    Supplier<String> reportSupplier =
+        () ->
+            generateReport(failures, lineCounter.get(), Duration.ofNanos(mappingNanos.get()));
 
     return new LoadResult(stream, reportSupplier);
   }
 
+  // The reader is only closed by the returned stream, so it must be closed here if none is returned
+  private static RuntimeException closeAfter(BufferedReader reader, Failure<?> failure) {
+    var exception =
+        failure.getException() instanceof RuntimeException runtimeException
+            ? runtimeException
+            : new IllegalStateException(failure.getException());
+    try {
+      reader.close();
+    } catch (IOException e) {
+      exception.addSuppressed(e);
+    }
+    return exception;
+  }
+
+  private static void close(BufferedReader reader) {
+    try {
+      reader.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
   // FIXME: NP-48927
   @SuppressWarnings("PMD.AvoidCatchingGenericException")
   private static ChannelRegistryCacheEntry processLine(
-      Entry<Integer, String> entry, String header, Map<Integer, FailureInfo> failures) {
+      Entry<Integer, String> entry,
+      ChannelRegistryCsvRowMapper rowMapper,
+      Map<Integer, FailureInfo> failures,
+      AtomicLong mappingNanos) {
+    var startTime = System.nanoTime();
     try {
-      var csvData = header + "\n" + entry.getValue();
-      var entries =
-          new CsvToBeanBuilder<ChannelRegistryCacheEntry>(new StringReader(csvData))
-              .withType(ChannelRegistryCacheEntry.class)
-              .withSeparator(';')
-              .withIgnoreEmptyLine(true)
-              .withFieldAsNull(CSVReaderNullFieldIndicator.BOTH)
-              .build()
-              .parse();
-      return entries.isEmpty() ? null : entries.getFirst();
+      return rowMapper.map(entry.getKey(), entry.getValue());
     } catch (Exception e) {
-      var rootCause = (Exception) e.getCause();
-      var errorMessage = rootCause.getClass().getSimpleName() + ": " + rootCause.getMessage();
+      var errorMessage = e.getClass().getSimpleName() + ": " + e.getMessage();
       failures.put(entry.getKey(), new FailureInfo(errorMessage, entry.getValue()));
       return null;
+    } finally {
+      mappingNanos.addAndGet(System.nanoTime() - startTime);
     }
   }
 
-  private static String generateReport(Map<Integer, FailureInfo> failures, int totalLines) {
+  // The mapping time covers parsing and mapping the lines, not reading them from S3
+  private static String generateReport(
+      Map<Integer, FailureInfo> failures, int totalLines, Duration mappingTime) {
     if (!failures.isEmpty()) {
       return failures.entrySet().stream()
           .map(
@@ -96,10 +137,11 @@ public final class ChannelRegistryCsvLoader {
               Collectors.joining(
                   "%n".formatted(),
                   "",
-                  "%n%nFailed to parse %d out of %d CSV lines"
-                      .formatted(failures.size(), totalLines)));
+                  "%n%nFailed to parse %d out of %d CSV lines, mapped in %d ms"
+                      .formatted(failures.size(), totalLines, mappingTime.toMillis())));
     } else {
-      return "Successfully parsed all %s CSV lines".formatted(totalLines);
+      return "Successfully parsed all %s CSV lines, mapped in %d ms"
+          .formatted(totalLines, mappingTime.toMillis());
     }
   }
 
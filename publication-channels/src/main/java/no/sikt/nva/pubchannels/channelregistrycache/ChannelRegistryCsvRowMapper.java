@@ -0,0 +1,136 @@
+package no.sikt.nva.pubchannels.channelregistrycache;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static no.sikt.nva.pubchannels.channelregistrycache.ChannelRegistryCacheEntry.CEASED_COLUMN;
+import static no.sikt.nva.pubchannels.channelregistrycache.ChannelRegistryCacheEntry.ISBN_COLUMN;
+import static no.sikt.nva.pubchannels.channelregistrycache.ChannelRegistryCacheEntry.LEVEL_HISTORY_COLUMN;
+import static no.sikt.nva.pubchannels.channelregistrycache.ChannelRegistryCacheEntry.ONLINE_ISSN_COLUMN;
+import static no.sikt.nva.pubchannels.channelregistrycache.ChannelRegistryCacheEntry.ORIGINAL_TITLE_COLUMN;
+import static no.sikt.nva.pubchannels.channelregistrycache.ChannelRegistryCacheEntry.PID_COLUMN;
+import static no.sikt.nva.pubchannels.channelregistrycache.ChannelRegistryCacheEntry.PRINT_ISSN_COLUMN;
+import static no.sikt.nva.pubchannels.channelregistrycache.ChannelRegistryCacheEntry.TYPE_COLUMN;
+import static no.sikt.nva.pubchannels.channelregistrycache.ChannelRegistryCacheEntry.URI_COLUMN;
+
+import com.opencsv.CSVParserBuilder;
+import com.opencsv.ICSVParser;
+import com.opencsv.enums.CSVReaderNullFieldIndicator;
+import com.opencsv.exceptions.CsvDataTypeMismatchException;
+import com.opencsv.exceptions.CsvException;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/** Maps channel register CSV lines to cache entries. Not thread safe. */
+final class ChannelRegistryCsvRowMapper {
+
+  private static final char SEPARATOR = ';';
+  private static final int MISSING_COLUMN = -1;
+  private static final String FIELD_COUNT_MISMATCH =
+      "Line %d has %d fields, but the header has %d columns";
+  private final ICSVParser parser;
+  private final LevelForYearConverter levelForYearConverter = new LevelForYearConverter();
+  private final int numberOfColumns;
+  private final int pidIndex;
+  private final int typeIndex;
+  private final int originalTitleIndex;
+  private final int printIssnIndex;
+  private final int onlineIssnIndex;
+  private final int isbnIndex;
+  private final int ceasedIndex;
+  private final int levelHistoryIndex;
+  private final int uriIndex;
+
+  private ChannelRegistryCsvRowMapper(ICSVParser parser, String... header) {
+    this.parser = parser;
+    this.numberOfColumns = header.length;
+    var columnIndexes = indexColumns(header);
+    this.pidIndex = indexOf(columnIndexes, PID_COLUMN);
+    this.typeIndex = indexOf(columnIndexes, TYPE_COLUMN);
+    this.originalTitleIndex = indexOf(columnIndexes, ORIGINAL_TITLE_COLUMN);
+    this.printIssnIndex = indexOf(columnIndexes, PRINT_ISSN_COLUMN);
+    this.onlineIssnIndex = indexOf(columnIndexes, ONLINE_ISSN_COLUMN);
+    this.isbnIndex = indexOf(columnIndexes, ISBN_COLUMN);
+    this.ceasedIndex = indexOf(columnIndexes, CEASED_COLUMN);
+    this.levelHistoryIndex = indexOf(columnIndexes, LEVEL_HISTORY_COLUMN);
+    this.uriIndex = indexOf(columnIndexes, URI_COLUMN);
+  }
+
+  static ChannelRegistryCsvRowMapper fromHeader(String header) throws IOException {
+    var parser =
+        new CSVParserBuilder()
+            .withSeparator(SEPARATOR)
+            .withFieldAsNull(CSVReaderNullFieldIndicator.BOTH)
+            .build();
+    return new ChannelRegistryCsvRowMapper(parser, parser.parseLine(header));
+  }
+
+  ChannelRegistryCacheEntry map(long lineNumber, String line) throws IOException, CsvException {
+    var fields = parser.parseLine(line);
+    if (isBlankLine(fields)) {
+      return null;
+    }
+    if (fields.length != numberOfColumns) {
+      throw fieldCountMismatch(lineNumber, fields.length);
+    }
+    return ChannelRegistryCacheEntry.builder()
+        .withPid(toUuid(valueAt(fields, pidIndex)))
+        .withType(valueAt(fields, typeIndex))
+        .withOriginalTitle(valueAt(fields, originalTitleIndex))
+        .withPrintIssn(valueAt(fields, printIssnIndex))
+        .withOnlineIssn(valueAt(fields, onlineIssnIndex))
+        .withIsbn(valueAt(fields, isbnIndex))
+        .withCeased(valueAt(fields, ceasedIndex))
+        .withLevelHistory(levelForYearConverter.convert(valueAt(fields, levelHistoryIndex)))
+        .withUri(valueAt(fields, uriIndex))
+        .build();
+  }
+
+  private CsvException fieldCountMismatch(long lineNumber, int numberOfFields) {
+    var exception =
+        new CsvException(
+            FIELD_COUNT_MISMATCH.formatted(lineNumber, numberOfFields, numberOfColumns));
+    exception.setLineNumber(lineNumber);
+    return exception;
+  }
+
+  private static Map<String, Integer> indexColumns(String... header) {
+    var columnIndexes = new HashMap<String, Integer>();
+    for (var index = 0; index < header.length; index++) {
+      if (nonNull(header[index])) {
+        columnIndexes.putIfAbsent(normalize(header[index]), index);
+      }
+    }
+    return columnIndexes;
+  }
+
+  private static int indexOf(Map<String, Integer> columnIndexes, String column) {
+    return columnIndexes.getOrDefault(normalize(column), MISSING_COLUMN);
+  }
+
+  private static String normalize(String column) {
+    return column.trim().toUpperCase(Locale.ROOT);
+  }
+
+  private static String valueAt(String[] fields, int index) {
+    return index == MISSING_COLUMN ? null : fields[index];
+  }
+
+  private static boolean isBlankLine(String... fields) {
+    return Arrays.stream(fields).allMatch(field -> isNull(field) || field.isBlank());
+  }
+
+  private static UUID toUuid(String value) throws CsvDataTypeMismatchException {
+    if (isNull(value) || value.isBlank()) {
+      return null;
+    }
+    try {
+      return UUID.fromString(value.trim());
+    } catch (IllegalArgumentException e) {
+      throw new CsvDataTypeMismatchException(e.getMessage());
+    }
+  }
+}
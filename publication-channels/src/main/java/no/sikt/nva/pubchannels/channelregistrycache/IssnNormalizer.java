@@ -0,0 +1,18 @@
+package no.sikt.nva.pubchannels.channelregistrycache;
+
+import static java.util.Objects.isNull;
+
+import java.util.Locale;
+
+/** Folds ISSNs to the form they are indexed by, so that "0029-2001" and "00292001" are equal. */
+public final class IssnNormalizer {
+
+  private IssnNormalizer() {}
+
+  public static String normalize(String issn) {
+    if (isNull(issn) || issn.isBlank()) {
+      return null;
+    }
+    return issn.replace("-", "").trim().toUpperCase(Locale.ROOT);
+  }
+}
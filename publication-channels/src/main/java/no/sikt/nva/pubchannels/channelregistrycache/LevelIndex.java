@@ -0,0 +1,84 @@
+package no.sikt.nva.pubchannels.channelregistrycache;
+
+import static java.util.Objects.isNull;
+import static no.sikt.nva.pubchannels.handler.validator.Validator.MAX_ACCEPTABLE_YEAR;
+import static no.sikt.nva.pubchannels.handler.validator.Validator.MIN_ACCEPTABLE_YEAR;
+import static nva.commons.core.attempt.Try.attempt;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Level history indexed by year. Each slot of {@code levelCodes} holds the position of the level
+ * in {@code levels} for the year {@code firstYear + slot}, or {@link #NO_LEVEL}. Years outside
+ * the range accepted by the API are left out, which also bounds the size of the array.
+ */
+final class LevelIndex {
+
+  private static final byte NO_LEVEL = -1;
+  private static final int UNKNOWN_YEAR = Integer.MIN_VALUE;
+  private static final LevelIndex EMPTY = new LevelIndex(0, new byte[0], new String[0]);
+  private final int firstYear;
+  private final byte[] levelCodes;
+  private final String[] levels;
+
+  private LevelIndex(int firstYear, byte[] levelCodes, String... levels) {
+    this.firstYear = firstYear;
+    this.levelCodes = levelCodes;
+    this.levels = levels;
+  }
+
+  static LevelIndex of(List<LevelForYear> levelHistory) {
+    if (isNull(levelHistory) || levelHistory.isEmpty()) {
+      return EMPTY;
+    }
+    var years = levelHistory.stream().mapToInt(LevelIndex::parseYear).toArray();
+    var knownYears = Arrays.stream(years).filter(year -> year != UNKNOWN_YEAR).toArray();
+    if (knownYears.length == 0) {
+      return EMPTY;
+    }
+    var firstYear = Arrays.stream(knownYears).min().getAsInt();
+    var lastYear = Arrays.stream(knownYears).max().getAsInt();
+    var levelCodes = new byte[lastYear - firstYear + 1];
+    Arrays.fill(levelCodes, NO_LEVEL);
+    var distinctLevels = new ArrayList<String>();
+    for (var i = 0; i < years.length; i++) {
+      var level = levelHistory.get(i).level();
+      if (years[i] == UNKNOWN_YEAR || isNull(level)) {
+        continue;
+      }
+      var slot = years[i] - firstYear;
+      if (levelCodes[slot] == NO_LEVEL) {
+        levelCodes[slot] = codeOf(distinctLevels, level);
+      }
+    }
+    return new LevelIndex(firstYear, levelCodes, distinctLevels.toArray(String[]::new));
+  }
+
+  String levelFor(int year) {
+    var slot = year - firstYear;
+    if (slot < 0 || slot >= levelCodes.length || levelCodes[slot] == NO_LEVEL) {
+      return null;
+    }
+    return levels[levelCodes[slot]];
+  }
+
+  private static int parseYear(LevelForYear levelForYear) {
+    var year =
+        attempt(() -> Integer.parseInt(levelForYear.year().trim()))
+            .orElse(failure -> UNKNOWN_YEAR);
+    return year < MIN_ACCEPTABLE_YEAR.getValue() || year > MAX_ACCEPTABLE_YEAR.getValue()
+        ? UNKNOWN_YEAR
+        : year;
+  }
+
+  private static byte codeOf(List<String> distinctLevels, String level) {
+    var code = distinctLevels.indexOf(level);
+    if (code < 0) {
+      distinctLevels.add(level);
+      code = distinctLevels.size() - 1;
+    }
+    return (byte) code;
+  }
+}
@@ -0,0 +1,94 @@
+package no.sikt.nva.pubchannels.channelregistrycache.db.model;
+
+import static no.sikt.nva.pubchannels.channelregistrycache.db.model.ChannelRegistryCacheDao.PRIMARY_KEY;
+import static no.sikt.nva.pubchannels.channelregistrycache.db.model.ChannelRegistryCacheDao.SORT_KEY;
+
+import java.util.Objects;
+import java.util.UUID;
+import java.util.stream.Stream;
+import no.sikt.nva.pubchannels.channelregistrycache.IssnNormalizer;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbAttribute;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbImmutable;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSecondaryPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSortKey;
+
+/**
+ * Records that a cached channel has an ISSN. Stored in the cache table next to the cache entry of
+ * the channel, with one item per distinct ISSN of the channel. Only these items carry the key of
+ * the ISSN index, so the index is sparse and holds each ISSN of a channel once.
+ */
+@DynamoDbImmutable(builder = ChannelIssnDao.Builder.class)
+public record ChannelIssnDao(UUID identifier, String issn) {
+
+  public static final String ISSN_INDEX = "IssnIndex";
+  public static final String ISSN_INDEX_KEY = "PK1";
+  private static final String ISSN_SORT_KEY_PREFIX = "ISSN#";
+
+  public static Stream<ChannelIssnDao> of(ChannelRegistryCacheDao channel) {
+    return Stream.of(channel.printIssn(), channel.onlineIssn())
+        .map(IssnNormalizer::normalize)
+        .filter(Objects::nonNull)
+        .distinct()
+        .map(issn -> builder().identifier(channel.identifier()).issn(issn).build());
+  }
+
+  @DynamoDbPartitionKey
+  @DynamoDbAttribute(PRIMARY_KEY)
+  public UUID primaryKeyHashKey() {
+    return identifier;
+  }
+
+  @DynamoDbSortKey
+  @DynamoDbAttribute(SORT_KEY)
+  public String primaryKeyRangeKey() {
+    return ISSN_SORT_KEY_PREFIX + issn;
+  }
+
+  @DynamoDbSecondaryPartitionKey(indexNames = ISSN_INDEX)
+  @DynamoDbAttribute(ISSN_INDEX_KEY)
+  public String issnIndexKey() {
+    return issn;
+  }
+
+  public static Builder builder() {
+    return new ChannelIssnDao.Builder();
+  }
+
+  public static final class Builder {
+
+    private UUID identifier;
+    private String issn;
+
+    private Builder() {}
+
+    public Builder identifier(UUID identifier) {
+      this.identifier = identifier;
+      return this;
+    }
+
+    public Builder issn(String issn) {
+      this.issn = issn;
+      return this;
+    }
+
+    public Builder primaryKeyHashKey(UUID noop) {
+      // Used by @DynamoDbImmutable for building the object
+      return this;
+    }
+
+    public Builder primaryKeyRangeKey(String noop) {
+      // Used by @DynamoDbImmutable for building the object
+      return this;
+    }
+
+    public Builder issnIndexKey(String noop) {
+      // Used by @DynamoDbImmutable for building the object
+      return this;
+    }
+
+    public ChannelIssnDao build() {
+      return new ChannelIssnDao(identifier, issn);
+    }
+  }
+}
@@ -0,0 +1,82 @@
+package no.sikt.nva.pubchannels.channelregistrycache.db.model;
+
+import static java.util.Objects.isNull;
+import static no.sikt.nva.pubchannels.channelregistrycache.db.model.ChannelRegistryCacheDao.PRIMARY_KEY;
+import static no.sikt.nva.pubchannels.channelregistrycache.db.model.ChannelRegistryCacheDao.SORT_KEY;
+
+import java.time.Instant;
+import java.util.UUID;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbAttribute;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbImmutable;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSortKey;
+
+/**
+ * Records that a channel in the channel register has moved to a new identifier. Stored in the
+ * cache table next to the cache entry of the old identifier, using a fixed sort key. The table
+ * deletes the redirect some time after {@code expiresAt}, given in epoch seconds.
+ */
+@DynamoDbImmutable(builder = ChannelRedirectDao.Builder.class)
+public record ChannelRedirectDao(UUID identifier, UUID redirectTo, Long expiresAt) {
+
+  public static final String REDIRECT_SORT_KEY = "REDIRECT";
+
+  @DynamoDbPartitionKey
+  @DynamoDbAttribute(PRIMARY_KEY)
+  public UUID primaryKeyHashKey() {
+    return identifier;
+  }
+
+  @DynamoDbSortKey
+  @DynamoDbAttribute(SORT_KEY)
+  public String primaryKeyRangeKey() {
+    return REDIRECT_SORT_KEY;
+  }
+
+  // Redirects written without an expiry are never deleted by the table, so they are not trusted
+  public boolean hasExpired(Instant now) {
+    return isNull(expiresAt) || expiresAt <= now.getEpochSecond();
+  }
+
+  public static Builder builder() {
+    return new ChannelRedirectDao.Builder();
+  }
+
+  public static final class Builder {
+
+    private UUID identifier;
+    private UUID redirectTo;
+    private Long expiresAt;
+
+    private Builder() {}
+
+    public Builder identifier(UUID identifier) {
+      this.identifier = identifier;
+      return this;
+    }
+
+    public Builder redirectTo(UUID redirectTo) {
+      this.redirectTo = redirectTo;
+      return this;
+    }
+
+    public Builder expiresAt(Long expiresAt) {
+      this.expiresAt = expiresAt;
+      return this;
+    }
+
+    public Builder primaryKeyHashKey(UUID noop) {
+      // Used by @DynamoDbImmutable for building the object
+      return this;
+    }
+
+    public Builder primaryKeyRangeKey(String noop) {
+      // Used by @DynamoDbImmutable for building the object
+      return this;
+    }
+
+    public ChannelRedirectDao build() {
+      return new ChannelRedirectDao(identifier, redirectTo, expiresAt);
+    }
+  }
+}
@@ -0,0 +1,19 @@
+package no.sikt.nva.pubchannels.channelregistrycache.db.service;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import no.sikt.nva.pubchannels.handler.ThirdPartyPublicationChannel;
+import no.sikt.nva.pubchannels.handler.fetch.RequestObject;
+
+/**
+ * Outcome of {@link CacheService#getChannels}. Keys that could not be read within the retry budget
+ * are reported as missing, so callers can fall back for them together with unknown keys.
+ */
+public record BatchReadResult(
+    Map<RequestObject, ThirdPartyPublicationChannel> found, Set<RequestObject> missing) {
+
+  public static BatchReadResult allMissing(Collection<RequestObject> requestObjects) {
+    return new BatchReadResult(Map.of(), Set.copyOf(requestObjects));
+  }
+}
@@ -0,0 +1,127 @@
+package no.sikt.nva.pubchannels.channelregistrycache.db.service;
+
+import static java.util.Objects.nonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static nva.commons.core.attempt.Try.attempt;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Hands batches to a fixed number of concurrent writers through a bounded queue, so that {@link
+ * #add} blocks while the writers are behind. Items must be added from a single thread.
+ */
+@SuppressWarnings("PMD.DoNotUseThreads")
+final class BatchWritePipeline<T> implements AutoCloseable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(BatchWritePipeline.class);
+  private static final int QUEUED_BATCHES_PER_WRITER = 2;
+  private static final Duration WRITER_CHECK_INTERVAL = Duration.ofMillis(100);
+  private final int batchSize;
+  private final int concurrency;
+  private final BlockingQueue<List<T>> queue;
+  private final ExecutorService executor;
+  private final List<Future<?>> writers;
+  private final AtomicReference<Error> writerFailure = new AtomicReference<>();
+  private List<T> currentBatch;
+
+  BatchWritePipeline(int concurrency, int batchSize, Consumer<List<T>> batchWriter) {
+    this.batchSize = batchSize;
+    this.concurrency = concurrency;
+    this.queue = new ArrayBlockingQueue<>(concurrency * QUEUED_BATCHES_PER_WRITER);
+    this.executor = Executors.newFixedThreadPool(concurrency);
+    this.writers =
+        IntStream.range(0, concurrency)
+            .<Future<?>>mapToObj(i -> executor.submit(() -> drain(batchWriter)))
+            .toList();
+    this.currentBatch = new ArrayList<>(batchSize);
+  }
+
+  void add(T item) {
+    failIfWriterStopped();
+    currentBatch.add(item);
+    if (currentBatch.size() == batchSize) {
+      enqueue(currentBatch);
+      currentBatch = new ArrayList<>(batchSize);
+    }
+  }
+
+  @Override
+  public void close() {
+    failIfWriterStopped();
+    if (!currentBatch.isEmpty()) {
+      enqueue(currentBatch);
+    }
+    // An empty batch tells a writer that there is nothing more to write
+    for (var i = 0; i < concurrency; i++) {
+      enqueue(List.of());
+    }
+    writers.forEach(writer -> attempt(writer::get).orElseThrow());
+    executor.shutdown();
+  }
+
+  // A writer stopped by an error is recorded, so that the producer fails instead of blocking on a
+  // queue that is no longer drained
+  private void drain(Consumer<List<T>> batchWriter) {
+    try {
+      var batch = take();
+      while (!batch.isEmpty()) {
+        write(batchWriter, batch);
+        batch = take();
+      }
+    } catch (Error e) {
+      LOGGER.error("Batch writer stopped", e);
+      writerFailure.compareAndSet(null, e);
+      throw e;
+    }
+  }
+
+  // A failing batch must not stop the writer, as the producer would then block on a full queue
+  @SuppressWarnings("PMD.AvoidCatchingGenericException")
+  private static <T> void write(Consumer<List<T>> batchWriter, List<T> batch) {
+    try {
+      batchWriter.accept(batch);
+    } catch (RuntimeException e) {
+      LOGGER.error("Failed to write batch of {} items", batch.size(), e);
+    }
+  }
+
+  private void enqueue(List<T> batch) {
+    try {
+      while (!queue.offer(batch, WRITER_CHECK_INTERVAL.toMillis(), MILLISECONDS)) {
+        failIfWriterStopped();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while queueing batch", e);
+    }
+  }
+
+  private void failIfWriterStopped() {
+    var failure = writerFailure.get();
+    if (nonNull(failure)) {
+      executor.shutdownNow();
+      throw new IllegalStateException("A batch writer stopped with an error", failure);
+    }
+  }
+
+  private List<T> take() {
+    try {
+      return queue.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return List.of();
+    }
+  }
+}
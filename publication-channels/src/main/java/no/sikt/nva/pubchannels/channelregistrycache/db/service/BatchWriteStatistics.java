@@ -0,0 +1,36 @@
+package no.sikt.nva.pubchannels.channelregistrycache.db.service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+final class BatchWriteStatistics {
+
+  private final String itemName;
+  private final AtomicInteger written = new AtomicInteger();
+  private final AtomicInteger retried = new AtomicInteger();
+  private final AtomicInteger dropped = new AtomicInteger();
+
+  BatchWriteStatistics(String itemName) {
+    this.itemName = itemName;
+  }
+
+  String itemName() {
+    return itemName;
+  }
+
+  int addWritten(int count) {
+    return written.addAndGet(count);
+  }
+
+  void addRetried(int count) {
+    retried.addAndGet(count);
+  }
+
+  void addDropped(int count) {
+    dropped.addAndGet(count);
+  }
+
+  String report() {
+    return "Wrote %d %s to cache, %d write retries, %d %s dropped"
+        .formatted(written.get(), itemName, retried.get(), dropped.get(), itemName);
+  }
+}
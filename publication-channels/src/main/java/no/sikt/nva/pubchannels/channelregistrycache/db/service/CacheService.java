@@ -1,16 +1,31 @@
 package no.sikt.nva.pubchannels.channelregistrycache.db.service;
 
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 import static nva.commons.core.attempt.Try.attempt;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
 import no.sikt.nva.pubchannels.channelregistrycache.CachedPublicationChannelNotFoundException;
 import no.sikt.nva.pubchannels.channelregistrycache.ChannelRegistryCacheEntry;
 import no.sikt.nva.pubchannels.channelregistrycache.ChannelRegistryCsvLoader;
+import no.sikt.nva.pubchannels.channelregistrycache.IssnNormalizer;
+import no.sikt.nva.pubchannels.channelregistrycache.db.model.ChannelIssnDao;
+import no.sikt.nva.pubchannels.channelregistrycache.db.model.ChannelRedirectDao;
 import no.sikt.nva.pubchannels.channelregistrycache.db.model.ChannelRegistryCacheDao;
 import no.sikt.nva.pubchannels.handler.PublicationChannelFetchClient;
 import no.sikt.nva.pubchannels.handler.ThirdPartyPublicationChannel;
@@ -19,9 +34,16 @@ import nva.commons.core.Environment;
 import nva.commons.core.JacocoGenerated;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.core.exception.SdkException;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
 import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchGetItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchGetResultPage;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import software.amazon.awssdk.enhanced.dynamodb.model.ReadBatch;
 import software.amazon.awssdk.enhanced.dynamodb.model.WriteBatch;
 import software.amazon.awssdk.services.s3.S3Client;
 
@@ -29,15 +51,38 @@ public class CacheService implements PublicationChannelFetchClient {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(CacheService.class);
   private static final int BATCH_SIZE = 25;
+  private static final int READ_BATCH_SIZE = 100;
+  private static final int READ_CONCURRENCY = 4;
+  private static final int MAX_WRITE_ATTEMPTS = 10;
+  private static final int MAX_READ_ATTEMPTS = 5;
+  private static final long BASE_BACKOFF_MILLIS = 25;
+  private static final long MAX_BACKOFF_MILLIS = 1_000;
+  private static final int PROGRESS_LOG_INTERVAL = 2000;
+  private static final String ENV_WRITER_CONCURRENCY = "CACHE_LOAD_WRITER_CONCURRENCY";
+  private static final int DEFAULT_WRITER_CONCURRENCY = 8;
+  private static final Duration REDIRECT_TIME_TO_LIVE = Duration.ofDays(7);
   private final DynamoDbTable<ChannelRegistryCacheDao> table;
+  private final DynamoDbTable<ChannelRedirectDao> redirectTable;
+  private final DynamoDbTable<ChannelIssnDao> issnTable;
   private final DynamoDbEnhancedClient client;
+  private final int writerConcurrency;
+  @SuppressWarnings("PMD.DoNotUseThreads")
+  private final ExecutorService readExecutor = newReadExecutor();
 
   public CacheService(DynamoDbEnhancedClient client) {
+    var environment = new Environment();
     this.client = client;
+    var tableName = environment.readEnv("TABLE_NAME");
     this.table =
-        client.table(
-            new Environment().readEnv("TABLE_NAME"),
-            TableSchema.fromImmutableClass(ChannelRegistryCacheDao.class));
+        client.table(tableName, TableSchema.fromImmutableClass(ChannelRegistryCacheDao.class));
+    this.redirectTable =
+        client.table(tableName, TableSchema.fromImmutableClass(ChannelRedirectDao.class));
+    this.issnTable = client.table(tableName, TableSchema.fromImmutableClass(ChannelIssnDao.class));
+    this.writerConcurrency =
+        environment
+            .readEnvOpt(ENV_WRITER_CONCURRENCY)
+            .map(Integer::parseInt)
+            .orElse(DEFAULT_WRITER_CONCURRENCY);
   }
 
   @JacocoGenerated
@@ -50,66 +95,250 @@ public class CacheService implements PublicationChannelFetchClient {
     var result = loader.getEntries();
 
     var counter = new AtomicInteger(0);
-    var batchCounter = new AtomicInteger(0);
-    var batch = new ArrayList<ChannelRegistryCacheDao>(BATCH_SIZE);
-    var seenPids = new ConcurrentHashMap<UUID, Boolean>();
-    var batchLock = new ReentrantLock();
-
-    result
-        .entries()
-        .filter(entry -> seenPids.putIfAbsent(entry.getPid(), Boolean.TRUE) == null)
-        .map(ChannelRegistryCacheEntry::toDao)
-        .forEach(
-            dao -> {
-              counter.incrementAndGet();
-              batchLock.lock();
-              try {
-                batch.add(dao);
-                if (batch.size() == BATCH_SIZE) {
-                  writeBatch(batch);
-                  int totalProcessed = batchCounter.addAndGet(BATCH_SIZE);
-                  if (totalProcessed % 2000 == 0) {
-                    LOGGER.info("Loaded {} entries", totalProcessed);
-                  }
-                  batch.clear();
-                }
-              } finally {
-                batchLock.unlock();
-              }
-            });
-
-    if (!batch.isEmpty()) {
-      writeBatch(batch);
-      LOGGER.info("Loaded {} entries", batchCounter.addAndGet(batch.size()));
+    var seenPids = new HashSet<UUID>();
+    var statistics = new BatchWriteStatistics("entries");
+    var issnStatistics = new BatchWriteStatistics("ISSN items");
+
+    try (var entries = result.entries();
+        var pipeline =
+            new BatchWritePipeline<ChannelRegistryCacheDao>(
+                writerConcurrency,
+                BATCH_SIZE,
+                batch -> writeBatch(table, batch, ChannelRegistryCacheDao::identifier, statistics));
+        var issnPipeline =
+            new BatchWritePipeline<ChannelIssnDao>(
+                writerConcurrency,
+                BATCH_SIZE,
+                batch ->
+                    writeBatch(issnTable, batch, ChannelIssnDao::identifier, issnStatistics))) {
+      entries
+          .filter(entry -> nonNull(entry.getPid()) && seenPids.add(entry.getPid()))
+          .map(ChannelRegistryCacheEntry::toDao)
+          .forEach(
+              dao -> {
+                counter.incrementAndGet();
+                pipeline.add(dao);
+                ChannelIssnDao.of(dao).forEach(issnPipeline::add);
+              });
     }
 
     LOGGER.info(result.report().get());
+    LOGGER.info(statistics.report());
+    LOGGER.info(issnStatistics.report());
     LOGGER.info("Cache loaded with {} entries", counter.get());
   }
 
-  private void writeBatch(List<ChannelRegistryCacheDao> batch) {
-    var writeBatch = WriteBatch.builder(ChannelRegistryCacheDao.class).mappedTableResource(table);
+  private <T> void writeBatch(
+      DynamoDbTable<T> targetTable,
+      List<T> batch,
+      Function<T, UUID> identifierOf,
+      BatchWriteStatistics statistics) {
+    var remaining = batch;
+    for (var attempt = 1; attempt <= MAX_WRITE_ATTEMPTS && !remaining.isEmpty(); attempt++) {
+      if (attempt > 1) {
+        statistics.addRetried(remaining.size());
+        if (!backOff(attempt)) {
+          break;
+        }
+      }
+      var unprocessed = submitBatch(targetTable, remaining);
+      var written = remaining.size() - unprocessed.size();
+      logProgress(statistics, statistics.addWritten(written), written);
+      remaining = unprocessed;
+    }
+    if (!remaining.isEmpty()) {
+      LOGGER.error(
+          "Dropped {} {} after {} write attempts: {}",
+          remaining.size(),
+          statistics.itemName(),
+          MAX_WRITE_ATTEMPTS,
+          remaining.stream().map(identifierOf).toList());
+      statistics.addDropped(remaining.size());
+    }
+  }
+
+  private static void logProgress(BatchWriteStatistics statistics, int totalWritten, int written) {
+    if ((totalWritten - written) / PROGRESS_LOG_INTERVAL != totalWritten / PROGRESS_LOG_INTERVAL) {
+      LOGGER.info("Loaded {} {}", totalWritten, statistics.itemName());
+    }
+  }
+
+  private <T> List<T> submitBatch(DynamoDbTable<T> targetTable, List<T> batch) {
+    var writeBatch =
+        WriteBatch.builder(targetTable.tableSchema().itemType().rawClass())
+            .mappedTableResource(targetTable);
     batch.forEach(writeBatch::addPutItem);
-    client.batchWriteItem(r -> r.addWriteBatch(writeBatch.build()));
+    var request = BatchWriteItemEnhancedRequest.builder().addWriteBatch(writeBatch.build()).build();
+    try {
+      return client.batchWriteItem(request).unprocessedPutItemsForTable(targetTable);
+    } catch (SdkException e) {
+      LOGGER.warn("Batch write of {} items failed, will retry", batch.size(), e);
+      return batch;
+    }
+  }
+
+  // Exponential backoff with full jitter, as recommended for throttled DynamoDB batch writes
+  @SuppressWarnings("PMD.DoNotUseThreads")
+  private static boolean backOff(int attempt) {
+    var ceiling = Math.min(MAX_BACKOFF_MILLIS, BASE_BACKOFF_MILLIS << attempt);
+    try {
+      Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
   }
 
   public void save(ChannelRegistryCacheEntry entry) {
-    table.putItem(entry.toDao());
+    var dao = entry.toDao();
+    table.putItem(dao);
+    ChannelIssnDao.of(dao).forEach(issnTable::putItem);
+  }
+
+  public void saveRedirect(String identifier, String redirectTo) {
+    redirectTable.putItem(
+        ChannelRedirectDao.builder()
+            .identifier(UUID.fromString(identifier))
+            .redirectTo(UUID.fromString(redirectTo))
+            .expiresAt(Instant.now().plus(REDIRECT_TIME_TO_LIVE).getEpochSecond())
+            .build());
+  }
+
+  public Optional<String> getRedirect(String identifier) {
+    return Optional.ofNullable(redirectTable.getItem(redirectWithIdentifier(identifier)))
+        .filter(redirect -> !redirect.hasExpired(Instant.now()))
+        .map(ChannelRedirectDao::redirectTo)
+        .map(UUID::toString)
+        .map(String::toUpperCase);
   }
 
   @Override
   public ThirdPartyPublicationChannel getChannel(RequestObject requestObject)
       throws CachedPublicationChannelNotFoundException {
-    return attempt(requestObject::identifier)
+    return getEntry(requestObject.identifier()).toThirdPartyPublicationChannel(requestObject);
+  }
+
+  public ChannelRegistryCacheEntry getEntry(String identifier)
+      throws CachedPublicationChannelNotFoundException {
+    return attempt(() -> identifier)
         .map(CacheService::entryWithIdentifier)
         .map(table::getItem)
         .map(ChannelRegistryCacheEntry::fromDao)
-        .map(entry -> entry.toThirdPartyPublicationChannel(requestObject))
-        .orElseThrow(
-            failure -> new CachedPublicationChannelNotFoundException(requestObject.identifier()));
+        .orElseThrow(failure -> new CachedPublicationChannelNotFoundException(identifier));
+  }
+
+  /**
+   * Cached channels with the ISSN as print or online ISSN. The ISSN index gives the identifiers of
+   * the channels, which are then read from the table.
+   */
+  public List<ChannelRegistryCacheEntry> findByIssn(String issn) {
+    var issnKey = IssnNormalizer.normalize(issn);
+    if (isNull(issnKey)) {
+      return List.of();
+    }
+    var identifiers =
+        issnTable
+            .index(ChannelIssnDao.ISSN_INDEX)
+            .query(QueryConditional.keyEqualTo(Key.builder().partitionValue(issnKey).build()))
+            .stream()
+            .flatMap(page -> page.items().stream())
+            .map(ChannelIssnDao::identifier)
+            .distinct()
+            .toList();
+    // An ISSN item can outlive a change of ISSN in a channel saved later, so check the channel
+    return readAll(identifiers).stream()
+        .filter(dao -> ChannelIssnDao.of(dao).anyMatch(item -> issnKey.equals(item.issn())))
+        .sorted(Comparator.comparing(ChannelRegistryCacheDao::identifier))
+        .map(ChannelRegistryCacheEntry::fromDao)
+        .toList();
+  }
+
+  public BatchReadResult getChannels(Collection<RequestObject> requestObjects) {
+    var requestsByIdentifier = groupByIdentifier(requestObjects);
+    var found = new HashMap<RequestObject, ThirdPartyPublicationChannel>();
+    for (var dao : readAll(List.copyOf(requestsByIdentifier.keySet()))) {
+      var entry = ChannelRegistryCacheEntry.fromDao(dao);
+      for (var requestObject : requestsByIdentifier.get(dao.identifier())) {
+        found.put(requestObject, entry.toThirdPartyPublicationChannel(requestObject));
+      }
+    }
+    var missing = new HashSet<>(requestObjects);
+    missing.removeAll(found.keySet());
+    return new BatchReadResult(found, missing);
+  }
+
+  private static Map<UUID, List<RequestObject>> groupByIdentifier(
+      Collection<RequestObject> requestObjects) {
+    var requestsByIdentifier = new HashMap<UUID, List<RequestObject>>();
+    for (var requestObject : requestObjects) {
+      requestsByIdentifier
+          .computeIfAbsent(UUID.fromString(requestObject.identifier()), key -> new ArrayList<>())
+          .add(requestObject);
+    }
+    return requestsByIdentifier;
+  }
+
+  @SuppressWarnings("PMD.DoNotUseThreads")
+  private List<ChannelRegistryCacheDao> readAll(List<UUID> identifiers) {
+    var chunks = new ArrayList<List<UUID>>();
+    for (var start = 0; start < identifiers.size(); start += READ_BATCH_SIZE) {
+      chunks.add(identifiers.subList(start, Math.min(start + READ_BATCH_SIZE, identifiers.size())));
+    }
+    if (chunks.size() <= 1) {
+      return chunks.stream().flatMap(chunk -> readBatch(chunk).stream()).toList();
+    }
+    var reads = chunks.stream().map(chunk -> readExecutor.submit(() -> readBatch(chunk))).toList();
+    return reads.stream().flatMap(read -> attempt(read::get).orElseThrow().stream()).toList();
+  }
+
+  // Shared by all reads of this instance, so that no threads are started on the request path once
+  // the pool is warm. Daemon threads, so that an idle pool never keeps the JVM alive.
+  @SuppressWarnings("PMD.DoNotUseThreads")
+  private static ExecutorService newReadExecutor() {
+    return Executors.newFixedThreadPool(
+        READ_CONCURRENCY, Thread.ofPlatform().daemon().name("cache-reader-", 0).factory());
+  }
+
+  private List<ChannelRegistryCacheDao> readBatch(List<UUID> identifiers) {
+    var found = new ArrayList<ChannelRegistryCacheDao>(identifiers.size());
+    var remaining = identifiers;
+    for (var attempt = 1; attempt <= MAX_READ_ATTEMPTS && !remaining.isEmpty(); attempt++) {
+      if (attempt > 1 && !backOff(attempt)) {
+        break;
+      }
+      var page = submitReadBatch(remaining);
+      found.addAll(page.resultsForTable(table));
+      remaining =
+          page.unprocessedKeysForTable(table).stream()
+              .map(key -> UUID.fromString(key.partitionKeyValue().s()))
+              .toList();
+    }
+    if (!remaining.isEmpty()) {
+      LOGGER.warn(
+          "Could not read {} entries after {} attempts: {}",
+          remaining.size(),
+          MAX_READ_ATTEMPTS,
+          remaining);
+    }
+    return found;
+  }
+
+  // Only the first page is consumed, so that unprocessed keys are retried with our own backoff
+  private BatchGetResultPage submitReadBatch(List<UUID> identifiers) {
+    var readBatch = ReadBatch.builder(ChannelRegistryCacheDao.class).mappedTableResource(table);
+    identifiers.forEach(
+        identifier ->
+            readBatch.addGetItem(ChannelRegistryCacheDao.builder().identifier(identifier).build()));
+    var request = BatchGetItemEnhancedRequest.builder().readBatches(readBatch.build()).build();
+    return client.batchGetItem(request).iterator().next();
   }
 
   private static ChannelRegistryCacheDao entryWithIdentifier(String identifier) {
     return ChannelRegistryCacheDao.builder().identifier(UUID.fromString(identifier)).build();
   }
+
+  private static ChannelRedirectDao redirectWithIdentifier(String identifier) {
+    return ChannelRedirectDao.builder().identifier(UUID.fromString(identifier)).build();
+  }
 }
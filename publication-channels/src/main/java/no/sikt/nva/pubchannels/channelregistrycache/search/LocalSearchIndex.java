@@ -0,0 +1,496 @@
+package no.sikt.nva.pubchannels.channelregistrycache.search;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import no.sikt.nva.pubchannels.channelregistry.ChannelType;
+import no.sikt.nva.pubchannels.channelregistrycache.ChannelRegistryCacheEntry;
+import no.sikt.nva.pubchannels.channelregistrycache.ChannelRegistryCsvLoader;
+import no.sikt.nva.pubchannels.channelregistrycache.IssnNormalizer;
+import no.sikt.nva.pubchannels.handler.validator.Validator;
+import nva.commons.core.JacocoGenerated;
+import org.apache.commons.validator.routines.ISSNValidator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.services.s3.S3Client;
+
+/**
+ * In-memory search over the channel register export. Titles are split into normalized terms kept
+ * in a sorted array with a postings list per term, so every query word is matched as a prefix with
+ * a binary search. Titles are also indexed by their trigrams, so that misspelled queries still find
+ * titles with a similar enough trigram set (Jaccard). ISSNs and ISBN prefixes are looked up
+ * directly.
+ */
+@SuppressWarnings("PMD.DoNotUseThreads")
+public final class LocalSearchIndex {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(LocalSearchIndex.class);
+  private static final Duration FAILED_LOAD_BACKOFF = Duration.ofMinutes(5);
+  private static final AtomicReference<CompletableFuture<LocalSearchIndex>> DEFAULT_INSTANCE =
+      new AtomicReference<>();
+  private static final AtomicReference<Instant> LAST_FAILED_LOAD = new AtomicReference<>();
+  private static final ReentrantLock DEFAULT_INSTANCE_LOCK = new ReentrantLock();
+  private static final Executor LOADER =
+      runnable -> Thread.ofPlatform().daemon().name("local-search-index-loader").start(runnable);
+  private static final Pattern ISBN_PREFIX = Pattern.compile(Validator.ISBN_PREFIX_PATTERN);
+  private static final double MIN_TRIGRAM_SIMILARITY = 0.3;
+  private static final int[] NO_IDS = new int[0];
+  private static final int RANK_EXACT_TITLE = 0;
+  private static final int RANK_LEADING_TITLE = 1;
+  private static final int RANK_ALL_TERMS = 2;
+  private static final int RANK_SIMILAR_TITLE = 3;
+  private final ChannelRegistryCacheEntry[] entries;
+  private final String[] normalizedTitles;
+  private final Map<ChannelType, BitSet> channelsOfType;
+  private final String[] terms;
+  private final int[][] postings;
+  private final Map<String, int[]> trigramIndex;
+  private final int[] titleOrder;
+  private final int[] titlePositions;
+  private final int[] trigramCounts;
+  private final Map<String, int[]> issnIndex;
+  private final Map<String, int[]> isbnPrefixIndex;
+  private final ThreadLocal<int[]> trigramOverlaps;
+
+  private LocalSearchIndex(
+      List<ChannelRegistryCacheEntry> entries,
+      Map<String, List<Integer>> termPostings,
+      Map<String, List<Integer>> issnPostings,
+      Map<String, List<Integer>> isbnPrefixPostings) {
+    this.entries = entries.toArray(ChannelRegistryCacheEntry[]::new);
+    this.normalizedTitles =
+        entries.stream()
+            .map(ChannelRegistryCacheEntry::getOriginalTitle)
+            .map(TitleNormalizer::normalize)
+            .toArray(String[]::new);
+    this.channelsOfType = new EnumMap<>(ChannelType.class);
+    for (var channelType : ChannelType.values()) {
+      var ofType = new BitSet(entries.size());
+      for (var id = 0; id < entries.size(); id++) {
+        ofType.set(id, entries.get(id).isOfType(channelType));
+      }
+      channelsOfType.put(channelType, ofType);
+    }
+    this.terms = termPostings.keySet().stream().sorted().toArray(String[]::new);
+    this.postings =
+        Arrays.stream(terms).map(term -> toArray(termPostings.get(term))).toArray(int[][]::new);
+    this.issnIndex = toArrays(issnPostings);
+    this.isbnPrefixIndex = toArrays(isbnPrefixPostings);
+    this.trigramCounts = new int[entries.size()];
+    var trigramPostings = new HashMap<String, List<Integer>>();
+    for (var id = 0; id < normalizedTitles.length; id++) {
+      var trigrams = TitleNormalizer.trigrams(normalizedTitles[id]);
+      trigramCounts[id] = trigrams.size();
+      for (var trigram : trigrams) {
+        addPosting(trigramPostings, trigram, id);
+      }
+    }
+    this.trigramIndex = toArrays(trigramPostings);
+    this.titleOrder =
+        IntStream.range(0, normalizedTitles.length)
+            .boxed()
+            .sorted(Comparator.<Integer, String>comparing(id -> normalizedTitles[id]))
+            .mapToInt(Integer::intValue)
+            .toArray();
+    this.titlePositions = new int[titleOrder.length];
+    for (var position = 0; position < titleOrder.length; position++) {
+      titlePositions[titleOrder[position]] = position;
+    }
+    this.trigramOverlaps = ThreadLocal.withInitial(() -> new int[normalizedTitles.length]);
+  }
+
+  /**
+   * Starts loading the default index in the background, so that it is usually ready before the
+   * first search. Handlers call this while they are initialized.
+   */
+  @JacocoGenerated
+  public static void preloadDefaultInstance() {
+    defaultInstanceLoad();
+  }
+
+  /**
+   * Returns the default index without waiting for it, so that callers can fall back while it is
+   * still loading. After a failed load, callers fail fast until {@link #FAILED_LOAD_BACKOFF} has
+   * passed, and the next call starts a new load.
+   */
+  @JacocoGenerated
+  public static LocalSearchIndex defaultInstance() {
+    var load = defaultInstanceLoad();
+    if (!load.isDone()) {
+      throw new IllegalStateException("Local search index is still loading");
+    }
+    try {
+      return load.join();
+    } catch (CompletionException e) {
+      throw new IllegalStateException("Local search index could not be loaded", e.getCause());
+    }
+  }
+
+  public static LocalSearchIndex load(S3Client s3Client) {
+    var startTime = System.nanoTime();
+    var result = new ChannelRegistryCsvLoader(s3Client).getEntries();
+    try (var entries = result.entries()) {
+      var index = build(entries);
+      LOGGER.info(
+          "Local search index built with {} channels in {} ms",
+          index.size(),
+          Duration.ofNanos(System.nanoTime() - startTime).toMillis());
+      return index;
+    }
+  }
+
+  public static LocalSearchIndex build(Stream<ChannelRegistryCacheEntry> entries) {
+    var seenPids = new HashSet<UUID>();
+    var indexedEntries = new ArrayList<ChannelRegistryCacheEntry>();
+    var termPostings = new HashMap<String, List<Integer>>();
+    var issnPostings = new HashMap<String, List<Integer>>();
+    var isbnPrefixPostings = new HashMap<String, List<Integer>>();
+    entries
+        .filter(entry -> nonNull(entry.getPid()) && seenPids.add(entry.getPid()))
+        .forEach(
+            entry -> {
+              var id = indexedEntries.size();
+              indexedEntries.add(entry);
+              new HashSet<>(TitleNormalizer.tokenize(entry.getOriginalTitle()))
+                  .forEach(term -> addPosting(termPostings, term, id));
+              addPosting(issnPostings, IssnNormalizer.normalize(entry.getPrintIssn()), id);
+              addPosting(issnPostings, IssnNormalizer.normalize(entry.getOnlineIssn()), id);
+              addPosting(isbnPrefixPostings, normalizeIsbnPrefix(entry.getIsbn()), id);
+            });
+    return new LocalSearchIndex(indexedEntries, termPostings, issnPostings, isbnPrefixPostings);
+  }
+
+  public int size() {
+    return entries.length;
+  }
+
+  public LocalSearchResponse search(
+      ChannelType type, String query, String year, int offset, int size) {
+    var matches = findMatches(type, query, offset + size);
+    var requestedYear = nonNull(year) ? year : Year.now().toString();
+    var hits =
+        Arrays.stream(matches.ids())
+            .skip(offset)
+            .limit(size)
+            .mapToObj(id -> entries[id].toThirdPartyPublicationChannel(type, requestedYear))
+            .toList();
+    return new LocalSearchResponse(hits, matches.total());
+  }
+
+  /** Channels of the given type whose title starts with the prefix, in title order. */
+  public List<ChannelRegistryCacheEntry> suggest(ChannelType type, String prefix, int limit) {
+    var normalizedPrefix = TitleNormalizer.normalize(prefix);
+    if (normalizedPrefix.isEmpty()) {
+      return List.of();
+    }
+    var suggestions = new ArrayList<ChannelRegistryCacheEntry>(limit);
+    for (var i = firstTitleNotBefore(normalizedPrefix);
+        i < titleOrder.length && suggestions.size() < limit;
+        i++) {
+      var id = titleOrder[i];
+      if (!normalizedTitles[id].startsWith(normalizedPrefix)) {
+        break;
+      }
+      if (channelsOfType.get(type).get(id)) {
+        suggestions.add(entries[id]);
+      }
+    }
+    return suggestions;
+  }
+
+  private int firstTitleNotBefore(String normalizedPrefix) {
+    var low = 0;
+    var high = titleOrder.length;
+    while (low < high) {
+      var middle = (low + high) >>> 1;
+      if (normalizedTitles[titleOrder[middle]].compareTo(normalizedPrefix) < 0) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  private Matches findMatches(ChannelType type, String query, int limit) {
+    var trimmedQuery = query.trim();
+    if (ISSNValidator.getInstance().isValid(trimmedQuery)) {
+      var ids = ofType(type, lookUp(issnIndex, IssnNormalizer.normalize(trimmedQuery)));
+      return Matches.firstOf(ids.sorted().toArray(), limit);
+    }
+    if (type == ChannelType.PUBLISHER && ISBN_PREFIX.matcher(trimmedQuery).matches()) {
+      var ids = ofType(type, lookUp(isbnPrefixIndex, normalizeIsbnPrefix(trimmedQuery)));
+      return Matches.firstOf(ids.sorted().toArray(), limit);
+    }
+    var normalizedQuery = TitleNormalizer.normalize(trimmedQuery);
+    var termMatches = matchTitleTerms(TitleNormalizer.tokenize(trimmedQuery));
+    return rankTitles(type, normalizedQuery, termMatches, limit);
+  }
+
+  // Every candidate is scored once into primitive arrays, and only the candidates that can end up
+  // on the requested page are ordered
+  private Matches rankTitles(
+      ChannelType type, String normalizedQuery, BitSet termMatches, int limit) {
+    var ofType = channelsOfType.get(type);
+    var candidates = new Candidates();
+    for (var id = termMatches.nextSetBit(0); id >= 0; id = termMatches.nextSetBit(id + 1)) {
+      if (ofType.get(id)) {
+        candidates.add(id, rank(id, normalizedQuery, termMatches), 0);
+      }
+    }
+    var queryTrigrams = TitleNormalizer.trigrams(normalizedQuery);
+    var overlaps = trigramOverlaps.get();
+    var trigramCandidates = new Candidates();
+    for (var trigram : queryTrigrams) {
+      for (var id : trigramIndex.getOrDefault(trigram, NO_IDS)) {
+        if (overlaps[id]++ == 0) {
+          trigramCandidates.add(id, RANK_SIMILAR_TITLE, 0);
+        }
+      }
+    }
+    for (var i = 0; i < trigramCandidates.count; i++) {
+      var id = trigramCandidates.ids[i];
+      var union = queryTrigrams.size() + trigramCounts[id] - overlaps[id];
+      var similarity = (double) overlaps[id] / union;
+      overlaps[id] = 0;
+      if (!termMatches.get(id) && ofType.get(id) && similarity >= MIN_TRIGRAM_SIMILARITY) {
+        candidates.add(id, RANK_SIMILAR_TITLE, -similarity);
+      }
+    }
+    return new Matches(candidates.best(limit), candidates.count);
+  }
+
+  private BitSet matchTitleTerms(List<String> queryTerms) {
+    if (queryTerms.isEmpty()) {
+      return new BitSet();
+    }
+    BitSet matches = null;
+    for (var queryTerm : queryTerms) {
+      var termMatches = documentsWithTermPrefix(queryTerm);
+      if (isNull(matches)) {
+        matches = termMatches;
+      } else {
+        matches.and(termMatches);
+      }
+      if (matches.isEmpty()) {
+        break;
+      }
+    }
+    return matches;
+  }
+
+  private BitSet documentsWithTermPrefix(String prefix) {
+    var documents = new BitSet(entries.length);
+    var position = Arrays.binarySearch(terms, prefix);
+    for (var i = position >= 0 ? position : -position - 1;
+        i < terms.length && terms[i].startsWith(prefix);
+        i++) {
+      for (var id : postings[i]) {
+        documents.set(id);
+      }
+    }
+    return documents;
+  }
+
+  private int rank(int id, String normalizedQuery, BitSet termMatches) {
+    var title = normalizedTitles[id];
+    if (title.equals(normalizedQuery)) {
+      return RANK_EXACT_TITLE;
+    }
+    if (title.startsWith(normalizedQuery)) {
+      return RANK_LEADING_TITLE;
+    }
+    return termMatches.get(id) ? RANK_ALL_TERMS : RANK_SIMILAR_TITLE;
+  }
+
+  private IntStream ofType(ChannelType type, IntStream ids) {
+    return ids.filter(channelsOfType.get(type)::get);
+  }
+
+  @JacocoGenerated
+  private static CompletableFuture<LocalSearchIndex> defaultInstanceLoad() {
+    DEFAULT_INSTANCE_LOCK.lock();
+    try {
+      var load = DEFAULT_INSTANCE.get();
+      if (isNull(load) || load.isCompletedExceptionally() && failedLoadBackoffHasPassed()) {
+        load = CompletableFuture.supplyAsync(LocalSearchIndex::loadDefaultInstance, LOADER);
+        DEFAULT_INSTANCE.set(load);
+      }
+      return load;
+    } finally {
+      DEFAULT_INSTANCE_LOCK.unlock();
+    }
+  }
+
+  @JacocoGenerated
+  private static LocalSearchIndex loadDefaultInstance() {
+    try {
+      return load(S3Client.create());
+    } catch (RuntimeException e) {
+      LAST_FAILED_LOAD.set(Instant.now());
+      LOGGER.error("Could not load local search index", e);
+      throw e;
+    }
+  }
+
+  @JacocoGenerated
+  private static boolean failedLoadBackoffHasPassed() {
+    var lastFailedLoad = LAST_FAILED_LOAD.get();
+    return isNull(lastFailedLoad)
+        || Instant.now().isAfter(lastFailedLoad.plus(FAILED_LOAD_BACKOFF));
+  }
+
+  private static IntStream lookUp(Map<String, int[]> index, String key) {
+    var ids = index.get(key);
+    return isNull(ids) ? IntStream.empty() : Arrays.stream(ids);
+  }
+
+  private static String normalizeIsbnPrefix(String isbnPrefix) {
+    return isNull(isbnPrefix) || isbnPrefix.isBlank() ? null : isbnPrefix.trim();
+  }
+
+  private static void addPosting(Map<String, List<Integer>> index, String key, int id) {
+    if (nonNull(key)) {
+      index.computeIfAbsent(key, ignored -> new ArrayList<>()).add(id);
+    }
+  }
+
+  private static Map<String, int[]> toArrays(Map<String, List<Integer>> index) {
+    var arrays = new HashMap<String, int[]>(index.size());
+    index.forEach((key, ids) -> arrays.put(key, toArray(ids)));
+    return arrays;
+  }
+
+  private static int[] toArray(List<Integer> ids) {
+    return ids.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  private record Matches(int[] ids, int total) {
+
+    private static Matches firstOf(int[] ids, int limit) {
+      return new Matches(Arrays.copyOf(ids, Math.min(limit, ids.length)), ids.length);
+    }
+  }
+
+  /**
+   * Candidates with their rank and score. Exact titles come first, then titles starting with the
+   * query, then titles containing all query words, then titles that are only similar, most similar
+   * first. Ties go to shorter titles, and then to title order.
+   */
+  private final class Candidates {
+
+    private static final int INITIAL_CAPACITY = 64;
+    private int[] ids = new int[INITIAL_CAPACITY];
+    private int[] ranks = new int[INITIAL_CAPACITY];
+    private double[] scores = new double[INITIAL_CAPACITY];
+    private int count;
+
+    private void add(int id, int rank, double score) {
+      if (count == ids.length) {
+        ids = Arrays.copyOf(ids, count * 2);
+        ranks = Arrays.copyOf(ranks, count * 2);
+        scores = Arrays.copyOf(scores, count * 2);
+      }
+      ids[count] = id;
+      ranks[count] = rank;
+      scores[count] = score;
+      count++;
+    }
+
+    // Keeps the best candidates in a heap with the worst of them on top, then empties the heap
+    // from the back of the result
+    private int[] best(int limit) {
+      var size = Math.min(limit, count);
+      var heap = new int[size];
+      var heapSize = 0;
+      for (var candidate = 0; candidate < count; candidate++) {
+        if (heapSize < size) {
+          heap[heapSize] = candidate;
+          siftUp(heap, heapSize++);
+        } else if (size > 0 && compare(candidate, heap[0]) < 0) {
+          heap[0] = candidate;
+          siftDown(heap, heapSize);
+        }
+      }
+      var best = new int[size];
+      while (heapSize > 0) {
+        best[heapSize - 1] = ids[heap[0]];
+        heap[0] = heap[--heapSize];
+        siftDown(heap, heapSize);
+      }
+      return best;
+    }
+
+    private void siftUp(int[] heap, int position) {
+      var child = position;
+      while (child > 0) {
+        var parent = (child - 1) / 2;
+        if (compare(heap[child], heap[parent]) <= 0) {
+          return;
+        }
+        swap(heap, child, parent);
+        child = parent;
+      }
+    }
+
+    private void siftDown(int[] heap, int heapSize) {
+      var parent = 0;
+      while (2 * parent + 1 < heapSize) {
+        var child = 2 * parent + 1;
+        if (child + 1 < heapSize && compare(heap[child + 1], heap[child]) > 0) {
+          child++;
+        }
+        if (compare(heap[parent], heap[child]) >= 0) {
+          return;
+        }
+        swap(heap, parent, child);
+        parent = child;
+      }
+    }
+
+    private int compare(int first, int second) {
+      var byRank = Integer.compare(ranks[first], ranks[second]);
+      if (byRank != 0) {
+        return byRank;
+      }
+      var byScore = Double.compare(scores[first], scores[second]);
+      if (byScore != 0) {
+        return byScore;
+      }
+      var firstId = ids[first];
+      var secondId = ids[second];
+      var byLength =
+          Integer.compare(normalizedTitles[firstId].length(), normalizedTitles[secondId].length());
+      return byLength != 0
+          ? byLength
+          : Integer.compare(titlePositions[firstId], titlePositions[secondId]);
+    }
+
+    private static void swap(int[] heap, int first, int second) {
+      var swapped = heap[first];
+      heap[first] = heap[second];
+      heap[second] = swapped;
+    }
+  }
+}
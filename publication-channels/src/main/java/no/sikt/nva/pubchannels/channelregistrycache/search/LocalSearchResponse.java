@@ -0,0 +1,21 @@
+package no.sikt.nva.pubchannels.channelregistrycache.search;
+
+import java.util.List;
+import no.sikt.nva.pubchannels.handler.ThirdPartyPublicationChannel;
+import no.sikt.nva.pubchannels.handler.search.ThirdPartyPageInformation;
+import no.sikt.nva.pubchannels.handler.search.ThirdPartyResultSet;
+import no.sikt.nva.pubchannels.handler.search.ThirdPartySearchResponse;
+
+public record LocalSearchResponse(List<ThirdPartyPublicationChannel> hits, int totalResults)
+    implements ThirdPartySearchResponse {
+
+  @Override
+  public ThirdPartyResultSet<ThirdPartyPublicationChannel> resultSet() {
+    return () -> hits;
+  }
+
+  @Override
+  public ThirdPartyPageInformation pageInformation() {
+    return () -> totalResults;
+  }
+}
@@ -0,0 +1,49 @@
+package no.sikt.nva.pubchannels.channelregistrycache.search;
+
+import static java.util.Objects.isNull;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/** Folds titles and queries to lower case words without diacritics, so that they compare equal. */
+public final class TitleNormalizer {
+
+  private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+  private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+  private TitleNormalizer() {}
+
+  public static String normalize(String text) {
+    if (isNull(text)) {
+      return "";
+    }
+    var decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+    var withoutMarks = COMBINING_MARKS.matcher(decomposed).replaceAll("");
+    return NON_ALPHANUMERIC
+        .matcher(withoutMarks.toLowerCase(Locale.ROOT))
+        .replaceAll(" ")
+        .trim();
+  }
+
+  public static List<String> tokenize(String text) {
+    var normalized = normalize(text);
+    return normalized.isEmpty() ? List.of() : Arrays.asList(normalized.split(" "));
+  }
+
+  /** Distinct trigrams of each word, padded so that word starts and ends weigh in. */
+  public static Set<String> trigrams(String text) {
+    var trigrams = new HashSet<String>();
+    for (var word : tokenize(text)) {
+      var padded = "  " + word + " ";
+      for (var i = 0; i + 3 <= padded.length(); i++) {
+        trigrams.add(padded.substring(i, i + 3));
+      }
+    }
+    return trigrams;
+  }
+}
@@ -1,5 +1,7 @@
 package no.sikt.nva.pubchannels.dataporten;
 
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 import static no.unit.nva.commons.json.JsonUtils.dtoObjectMapper;
 import static nva.commons.core.attempt.Try.attempt;
 
@@ -10,8 +12,13 @@ import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Base64;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 import no.sikt.nva.pubchannels.HttpHeaders;
 import no.sikt.nva.pubchannels.dataporten.model.TokenBodyResponse;
 import no.sikt.nva.pubchannels.handler.AuthClient;
@@ -26,26 +33,69 @@ public class DataportenAuthClient implements AuthClient {
   private static final Logger LOGGER = LoggerFactory.getLogger(DataportenAuthClient.class);
   private static final Map<String, String> GRANT_TYPE_CLIENT_CREDENTIALS =
       Map.of("grant_type", "client_credentials");
+  // Tokens are refreshed this long before they expire to avoid sending an expired token upstream
+  private static final Duration TOKEN_REFRESH_MARGIN = Duration.ofSeconds(60);
   private final HttpClient httpClient;
   private final URI baseUri;
   private final String clientId;
   private final String clientSecret;
+  private final Clock clock;
+  private final AtomicReference<CachedToken> cachedToken = new AtomicReference<>();
+  private final ReentrantLock refreshLock = new ReentrantLock();
 
   public DataportenAuthClient(
       HttpClient httpClient, URI baseUri, String clientId, String clientSecret) {
+    this(httpClient, baseUri, clientId, clientSecret, Clock.systemUTC());
+  }
+
+  public DataportenAuthClient(
+      HttpClient httpClient, URI baseUri, String clientId, String clientSecret, Clock clock) {
     this.clientId = clientId;
     this.clientSecret = clientSecret;
     this.httpClient = httpClient;
     this.baseUri = baseUri;
+    this.clock = clock;
   }
 
   @Override
   public String getToken() throws ApiGatewayException {
+    var token = cachedToken.get();
+    if (isValid(token)) {
+      return token.accessToken();
+    }
+    refreshLock.lock();
+    try {
+      return refreshToken();
+    } finally {
+      refreshLock.unlock();
+    }
+  }
+
+  private String refreshToken() throws ApiGatewayException {
+    // Another caller may have refreshed the token while we were waiting for the lock
+    var token = cachedToken.get();
+    if (isValid(token)) {
+      return token.accessToken();
+    }
     var request = createTokenRequest(clientId, clientSecret);
     var tokenBody = fetchToken(request);
+    cachedToken.set(toCachedToken(tokenBody));
     return tokenBody.getAccessToken();
   }
 
+  private boolean isValid(CachedToken token) {
+    return nonNull(token) && clock.instant().isBefore(token.refreshAt());
+  }
+
+  private CachedToken toCachedToken(TokenBodyResponse tokenBody) {
+    if (isNull(tokenBody.getExpiresIn())) {
+      return null;
+    }
+    var refreshAt =
+        clock.instant().plusSeconds(tokenBody.getExpiresIn()).minus(TOKEN_REFRESH_MARGIN);
+    return new CachedToken(tokenBody.getAccessToken(), refreshAt);
+  }
+
   private static HttpRequest.BodyPublisher clientCredentialsAuthType() {
     var queryParameters =
         UriWrapper.fromHost("notimportant")
@@ -110,4 +160,6 @@ public class DataportenAuthClient implements AuthClient {
     }
     return new BadGatewayException("Unable to reach upstream!");
   }
+
+  private record CachedToken(String accessToken, Instant refreshAt) {}
 }
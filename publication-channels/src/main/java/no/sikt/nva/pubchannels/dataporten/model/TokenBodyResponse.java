@@ -11,12 +11,21 @@ public class TokenBodyResponse {
   @JsonProperty("token_type")
   private final String tokenType;
 
+  @JsonProperty("expires_in")
+  private final Long expiresIn;
+
   @JsonCreator
   public TokenBodyResponse(
       @JsonProperty("access_token") String accessToken,
-      @JsonProperty("token_type") String tokenType) {
+      @JsonProperty("token_type") String tokenType,
+      @JsonProperty("expires_in") Long expiresIn) {
     this.accessToken = accessToken;
     this.tokenType = tokenType;
+    this.expiresIn = expiresIn;
+  }
+
+  public TokenBodyResponse(String accessToken, String tokenType) {
+    this(accessToken, tokenType, null);
   }
 
   public String getAccessToken() {
@@ -26,4 +35,8 @@ public class TokenBodyResponse {
   public String getTokenType() {
     return tokenType;
   }
+
+  public Long getExpiresIn() {
+    return expiresIn;
+  }
 }
@@ -0,0 +1,15 @@
+package no.sikt.nva.pubchannels.handler;
+
+import java.util.concurrent.CompletableFuture;
+import no.sikt.nva.pubchannels.handler.fetch.RequestObject;
+
+/**
+ * Non-blocking variant of {@link PublicationChannelFetchClient}. Failures complete the future
+ * exceptionally with the same {@link nva.commons.apigateway.exceptions.ApiGatewayException} the
+ * blocking client would throw.
+ */
+@FunctionalInterface
+public interface AsyncPublicationChannelFetchClient {
+
+  CompletableFuture<ThirdPartyPublicationChannel> getChannelAsync(RequestObject requestObject);
+}
@@ -0,0 +1,25 @@
+package no.sikt.nva.pubchannels.handler;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import no.sikt.nva.pubchannels.channelregistry.ChannelType;
+import no.sikt.nva.pubchannels.channelregistry.model.create.ChannelRegistryCreatePublisherRequest;
+import no.sikt.nva.pubchannels.channelregistry.model.create.ChannelRegistryCreateSerialPublicationRequest;
+import no.sikt.nva.pubchannels.channelregistry.model.create.CreateChannelResponse;
+import no.sikt.nva.pubchannels.handler.search.ThirdPartySearchResponse;
+
+/** Non-blocking variant of {@link PublicationChannelSearchCreateClient}. */
+public interface AsyncPublicationChannelSearchCreateClient {
+
+  CompletableFuture<ThirdPartySearchResponse> searchChannelAsync(
+      ChannelType type, Map<String, String> queryParameters);
+
+  CompletableFuture<CreateChannelResponse> createJournalAsync(
+      ChannelRegistryCreateSerialPublicationRequest request);
+
+  CompletableFuture<CreateChannelResponse> createPublisherAsync(
+      ChannelRegistryCreatePublisherRequest request);
+
+  CompletableFuture<CreateChannelResponse> createSeriesAsync(
+      ChannelRegistryCreateSerialPublicationRequest request);
+}
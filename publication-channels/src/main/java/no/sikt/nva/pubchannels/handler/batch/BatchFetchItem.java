@@ -0,0 +1,11 @@
+package no.sikt.nva.pubchannels.handler.batch;
+
+import no.sikt.nva.pubchannels.handler.fetch.RequestObject;
+import nva.commons.apigateway.exceptions.BadRequestException;
+
+public record BatchFetchItem(String type, String identifier, String year) {
+
+  public RequestObject toRequestObject() throws BadRequestException {
+    return RequestObject.fromValues(type, identifier, year);
+  }
+}
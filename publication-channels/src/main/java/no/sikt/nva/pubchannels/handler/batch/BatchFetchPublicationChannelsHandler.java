@@ -0,0 +1,73 @@
+package no.sikt.nva.pubchannels.handler.batch;
+
+import static java.net.HttpURLConnection.HTTP_OK;
+import static nva.commons.apigateway.MediaType.JSON_UTF_8;
+import static nva.commons.apigateway.MediaTypes.APPLICATION_JSON_LD;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import java.util.List;
+import no.sikt.nva.pubchannels.channelregistry.ChannelRegistryClient;
+import no.sikt.nva.pubchannels.channelregistrycache.db.service.CacheService;
+import no.sikt.nva.pubchannels.handler.PublicationChannelFetchClient;
+import no.sikt.nva.pubchannels.handler.fetch.PublicationChannelService;
+import no.sikt.nva.pubchannels.utils.AppConfig;
+import no.sikt.nva.pubchannels.utils.ApplicationConfiguration;
+import nva.commons.apigateway.ApiGatewayHandler;
+import nva.commons.apigateway.MediaType;
+import nva.commons.apigateway.RequestInfo;
+import nva.commons.apigateway.exceptions.ApiGatewayException;
+import nva.commons.apigateway.exceptions.BadRequestException;
+import nva.commons.core.Environment;
+import nva.commons.core.JacocoGenerated;
+
+public class BatchFetchPublicationChannelsHandler
+    extends ApiGatewayHandler<BatchFetchRequest, BatchFetchResponse> {
+
+  private static final String EMPTY_REQUEST_MESSAGE = "Request body is empty!";
+  private final BatchFetchService batchFetchService;
+
+  @JacocoGenerated
+  public BatchFetchPublicationChannelsHandler() {
+    this(
+        new Environment(),
+        ChannelRegistryClient.defaultInstance(),
+        CacheService.defaultInstance(),
+        ApplicationConfiguration.defaultAppConfigClientInstance());
+  }
+
+  public BatchFetchPublicationChannelsHandler(
+      Environment environment,
+      PublicationChannelFetchClient channelRegistryClient,
+      CacheService cacheService,
+      AppConfig appConfig) {
+    super(BatchFetchRequest.class, environment);
+    var publicationChannelService =
+        new PublicationChannelService(channelRegistryClient, cacheService, appConfig, environment);
+    this.batchFetchService = new BatchFetchService(publicationChannelService);
+  }
+
+  @Override
+  protected List<MediaType> listSupportedMediaTypes() {
+    return List.of(JSON_UTF_8, APPLICATION_JSON_LD);
+  }
+
+  @Override
+  protected void validateRequest(BatchFetchRequest input, RequestInfo requestInfo, Context context)
+      throws ApiGatewayException {
+    if (input == null) {
+      throw new BadRequestException(EMPTY_REQUEST_MESSAGE);
+    }
+    input.validate();
+  }
+
+  @Override
+  protected BatchFetchResponse processInput(
+      BatchFetchRequest input, RequestInfo requestInfo, Context context) {
+    return new BatchFetchResponse(batchFetchService.fetch(input.items()));
+  }
+
+  @Override
+  protected Integer getSuccessStatusCode(BatchFetchRequest input, BatchFetchResponse output) {
+    return HTTP_OK;
+  }
+}
@@ -0,0 +1,25 @@
+package no.sikt.nva.pubchannels.handler.batch;
+
+import static java.util.Objects.isNull;
+
+import java.util.List;
+import java.util.Objects;
+import nva.commons.apigateway.exceptions.BadRequestException;
+
+public record BatchFetchRequest(List<BatchFetchItem> items) {
+
+  public static final int MAX_ITEMS = 100;
+
+  public void validate() throws BadRequestException {
+    if (isNull(items) || items.isEmpty()) {
+      throw new BadRequestException("Request must contain at least one item");
+    }
+    if (items.size() > MAX_ITEMS) {
+      throw new BadRequestException(
+          "Request contains too many items. Maximum is %d".formatted(MAX_ITEMS));
+    }
+    if (items.stream().anyMatch(Objects::isNull)) {
+      throw new BadRequestException("Request contains empty items");
+    }
+  }
+}
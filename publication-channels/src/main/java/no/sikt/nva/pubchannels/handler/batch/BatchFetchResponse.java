@@ -0,0 +1,6 @@
+package no.sikt.nva.pubchannels.handler.batch;
+
+import java.util.List;
+import no.unit.nva.commons.json.JsonSerializable;
+
+public record BatchFetchResponse(List<BatchFetchResult> results) implements JsonSerializable {}
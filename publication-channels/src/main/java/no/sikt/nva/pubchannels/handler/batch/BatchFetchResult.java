@@ -0,0 +1,38 @@
+package no.sikt.nva.pubchannels.handler.batch;
+
+import static java.net.HttpURLConnection.HTTP_OK;
+
+import java.net.URI;
+import no.sikt.nva.pubchannels.handler.model.PublicationChannelDto;
+import nva.commons.apigateway.exceptions.ApiGatewayException;
+import nva.commons.apigateway.exceptions.RedirectException;
+
+public record BatchFetchResult(
+    String type,
+    String identifier,
+    String year,
+    int status,
+    PublicationChannelDto channel,
+    String detail,
+    URI location) {
+
+  public static BatchFetchResult success(BatchFetchItem item, PublicationChannelDto channel) {
+    return new BatchFetchResult(
+        item.type(), item.identifier(), item.year(), HTTP_OK, channel, null, null);
+  }
+
+  public static BatchFetchResult failure(BatchFetchItem item, ApiGatewayException exception) {
+    var location =
+        exception instanceof RedirectException redirectException
+            ? redirectException.getLocation()
+            : null;
+    return new BatchFetchResult(
+        item.type(),
+        item.identifier(),
+        item.year(),
+        exception.getStatusCode(),
+        null,
+        exception.getMessage(),
+        location);
+  }
+}
@@ -0,0 +1,128 @@
+package no.sikt.nva.pubchannels.handler.batch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import no.sikt.nva.pubchannels.handler.fetch.PublicationChannelService;
+import no.sikt.nva.pubchannels.handler.fetch.RequestObject;
+import nva.commons.apigateway.exceptions.ApiGatewayException;
+import nva.commons.apigateway.exceptions.BadGatewayException;
+import nva.commons.apigateway.exceptions.BadRequestException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class BatchFetchService {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(BatchFetchService.class);
+  private static final int MAX_CONCURRENT_FETCHES = 16;
+  private final PublicationChannelService publicationChannelService;
+
+  public BatchFetchService(PublicationChannelService publicationChannelService) {
+    this.publicationChannelService = publicationChannelService;
+  }
+
+  public List<BatchFetchResult> fetch(List<BatchFetchItem> items) {
+    var results = new ArrayList<BatchFetchResult>(Collections.nCopies(items.size(), null));
+    var pendingItems = new ArrayList<PendingItem>();
+    for (var index = 0; index < items.size(); index++) {
+      var item = items.get(index);
+      try {
+        pendingItems.add(new PendingItem(index, item, item.toRequestObject()));
+      } catch (BadRequestException exception) {
+        results.set(index, BatchFetchResult.failure(item, exception));
+      }
+    }
+
+    var unresolvedItems = resolveRemembered(pendingItems, results);
+    var cacheResult =
+        publicationChannelService.readFromCache(
+            unresolvedItems.stream().map(PendingItem::requestObject).toList());
+    var misses = new ArrayList<PendingItem>();
+    for (var pendingItem : unresolvedItems) {
+      if (cacheResult.missing().contains(pendingItem.requestObject())) {
+        misses.add(pendingItem);
+      } else {
+        var cachedChannel = cacheResult.found().get(pendingItem.requestObject());
+        var channel = publicationChannelService.toDto(pendingItem.requestObject(), cachedChannel);
+        results.set(pendingItem.index(), BatchFetchResult.success(pendingItem.item(), channel));
+      }
+    }
+
+    var fetched = fetchConcurrently(misses);
+    for (var position = 0; position < misses.size(); position++) {
+      results.set(misses.get(position).index(), fetched.get(position));
+    }
+    return results;
+  }
+
+  // Channels the service has recently fetched, found missing or seen move resolve like single GETs
+  private List<PendingItem> resolveRemembered(
+      List<PendingItem> pendingItems, List<BatchFetchResult> results) {
+    var unresolvedItems = new ArrayList<PendingItem>();
+    for (var pendingItem : pendingItems) {
+      try {
+        var remembered = publicationChannelService.findRemembered(pendingItem.requestObject());
+        if (remembered.isPresent()) {
+          var channel =
+              publicationChannelService.toDto(pendingItem.requestObject(), remembered.get());
+          results.set(pendingItem.index(), BatchFetchResult.success(pendingItem.item(), channel));
+        } else {
+          unresolvedItems.add(pendingItem);
+        }
+      } catch (ApiGatewayException exception) {
+        results.set(pendingItem.index(), BatchFetchResult.failure(pendingItem.item(), exception));
+      }
+    }
+    return unresolvedItems;
+  }
+
+  @SuppressWarnings("PMD.DoNotUseThreads")
+  private List<BatchFetchResult> fetchConcurrently(List<PendingItem> pendingItems) {
+    if (pendingItems.isEmpty()) {
+      return List.of();
+    }
+    var futures = new ArrayList<Future<BatchFetchResult>>(pendingItems.size());
+    try (var executor =
+        Executors.newFixedThreadPool(Math.min(pendingItems.size(), MAX_CONCURRENT_FETCHES))) {
+      for (var pendingItem : pendingItems) {
+        futures.add(executor.submit(() -> fetchSingle(pendingItem)));
+      }
+    }
+    var results = new ArrayList<BatchFetchResult>(pendingItems.size());
+    for (var position = 0; position < pendingItems.size(); position++) {
+      results.add(awaitResult(pendingItems.get(position).item(), futures.get(position)));
+    }
+    return results;
+  }
+
+  private BatchFetchResult fetchSingle(PendingItem pendingItem) {
+    try {
+      var channel =
+          publicationChannelService.shouldUseCache()
+              ? publicationChannelService.fetchMissingFromCache(pendingItem.requestObject())
+              : publicationChannelService.fetch(pendingItem.requestObject());
+      return BatchFetchResult.success(pendingItem.item(), channel);
+    } catch (ApiGatewayException exception) {
+      return BatchFetchResult.failure(pendingItem.item(), exception);
+    }
+  }
+
+  @SuppressWarnings("PMD.DoNotUseThreads")
+  private static BatchFetchResult awaitResult(
+      BatchFetchItem item, Future<BatchFetchResult> future) {
+    try {
+      return future.get();
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      return BatchFetchResult.failure(item, new BadGatewayException("Fetch was interrupted"));
+    } catch (ExecutionException exception) {
+      LOGGER.error("Unexpected error fetching {}", item, exception.getCause());
+      return BatchFetchResult.failure(item, new BadGatewayException("Unexpected error"));
+    }
+  }
+
+  private record PendingItem(int index, BatchFetchItem item, RequestObject requestObject) {}
+}
@@ -1,6 +1,7 @@
 package no.sikt.nva.pubchannels.handler.fetch;
 
 import static java.net.HttpURLConnection.HTTP_OK;
+import static no.sikt.nva.pubchannels.handler.fetch.PublicationChannelService.CACHE_MAX_AGE_SECONDS;
 import static nva.commons.apigateway.MediaType.JSON_UTF_8;
 import static nva.commons.apigateway.MediaTypes.APPLICATION_JSON_LD;
 import static org.apache.hc.core5.http.HttpHeaders.CACHE_CONTROL;
@@ -23,7 +24,6 @@ import nva.commons.core.JacocoGenerated;
 
 public class FetchPublicationChannelHandler extends ApiGatewayHandler<Void, PublicationChannelDto> {
 
-  private static final int CACHE_MAX_AGE_SECONDS = 300;
   private final PublicationChannelService publicationChannelService;
 
   @JacocoGenerated
@@ -5,10 +5,14 @@ import static nva.commons.core.paths.UriWrapper.HTTPS;
 
 import java.net.HttpURLConnection;
 import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
 import java.util.function.Function;
 import no.sikt.nva.pubchannels.channelregistry.PublicationChannelMovedException;
 import no.sikt.nva.pubchannels.channelregistry.model.ChannelRegistrySerialPublication;
 import no.sikt.nva.pubchannels.channelregistrycache.CachedPublicationChannelNotFoundException;
+import no.sikt.nva.pubchannels.channelregistrycache.db.service.BatchReadResult;
 import no.sikt.nva.pubchannels.channelregistrycache.db.service.CacheService;
 import no.sikt.nva.pubchannels.handler.PublicationChannelFetchClient;
 import no.sikt.nva.pubchannels.handler.ThirdPartyPublicationChannel;
@@ -17,7 +21,13 @@ import no.sikt.nva.pubchannels.handler.model.PublicationChannelDto;
 import no.sikt.nva.pubchannels.handler.model.PublisherDto;
 import no.sikt.nva.pubchannels.handler.model.SerialPublicationDto;
 import no.sikt.nva.pubchannels.utils.AppConfig;
+import no.sikt.nva.pubchannels.utils.ExpiringCache;
+import no.sikt.nva.pubchannels.utils.ExpiringCache.Statistics;
+import no.sikt.nva.pubchannels.utils.SingleFlight;
+import no.sikt.nva.pubchannels.utils.SingleFlight.Loader;
 import nva.commons.apigateway.exceptions.ApiGatewayException;
+import nva.commons.apigateway.exceptions.BadGatewayException;
+import nva.commons.apigateway.exceptions.NotFoundException;
 import nva.commons.core.Environment;
 import nva.commons.core.attempt.Failure;
 import nva.commons.core.paths.UriWrapper;
@@ -26,6 +36,12 @@ import org.slf4j.LoggerFactory;
 
 public class PublicationChannelService {
 
+  public static final int CACHE_MAX_AGE_SECONDS = 300;
+  private static final int CHANNEL_CACHE_MAX_SIZE = 10_000;
+  private static final int NOT_FOUND_CACHE_MAX_SIZE = 5_000;
+  private static final Duration NOT_FOUND_CACHE_TIME_TO_LIVE = Duration.ofSeconds(60);
+  private static final int REDIRECT_CACHE_MAX_SIZE = 10_000;
+  private static final Duration REDIRECT_CACHE_TIME_TO_LIVE = Duration.ofDays(1);
   private static final String FETCHING_FROM_CHANNEL_REGISTER_MESSAGE =
       "Fetching {} from channel register: {}";
   private static final String FETCHING_FROM_CACHE_MESSAGE = "Fetching {} from cache: {}";
@@ -36,6 +52,13 @@ public class PublicationChannelService {
   private final CacheService cacheService;
   private final AppConfig appConfig;
   private final Environment environment;
+  private final ExpiringCache<RequestObject, ThirdPartyPublicationChannel> channelCache;
+  private final ExpiringCache<RequestObject, String> notFoundCache;
+  private final ExpiringCache<String, String> redirects;
+  private final SingleFlight<RequestObject, ThirdPartyPublicationChannel> registryFetches =
+      new SingleFlight<>();
+  private final SingleFlight<RequestObject, ThirdPartyPublicationChannel> cacheFetches =
+      new SingleFlight<>();
 
   public PublicationChannelService(
       PublicationChannelFetchClient publicationChannelClient,
@@ -46,6 +69,11 @@ public class PublicationChannelService {
     this.cacheService = cacheService;
     this.appConfig = appConfig;
     this.environment = environment;
+    this.channelCache =
+        new ExpiringCache<>(CHANNEL_CACHE_MAX_SIZE, Duration.ofSeconds(CACHE_MAX_AGE_SECONDS));
+    this.notFoundCache =
+        new ExpiringCache<>(NOT_FOUND_CACHE_MAX_SIZE, NOT_FOUND_CACHE_TIME_TO_LIVE);
+    this.redirects = new ExpiringCache<>(REDIRECT_CACHE_MAX_SIZE, REDIRECT_CACHE_TIME_TO_LIVE);
   }
 
   public URI constructPublicationChannelIdBaseUri(String type) {
@@ -58,25 +86,46 @@ public class PublicationChannelService {
     return appConfig.shouldUseCache();
   }
 
+  public Statistics channelCacheStatistics() {
+    return channelCache.statistics();
+  }
+
+  public Statistics notFoundCacheStatistics() {
+    return notFoundCache.statistics();
+  }
+
   public ThirdPartyPublicationChannel fetchChannelFromCacheWithApiFallback(
       RequestObject requestObject) throws ApiGatewayException {
     LOGGER.info(
         FETCHING_FROM_CACHE_MESSAGE, requestObject.channelType(), requestObject.identifier());
     try {
-      return cacheService.getChannel(requestObject);
+      return cacheFetches.execute(requestObject, () -> cacheService.getChannel(requestObject));
     } catch (CachedPublicationChannelNotFoundException notFoundException) {
-      return attempt(() -> publicationChannelClient.getChannel(requestObject))
-          .orElseThrow(failure -> notFoundException);
+      return fetchChannelAfterCacheMiss(requestObject, notFoundException);
     }
   }
 
   public PublicationChannelDto fetch(RequestObject requestObject) throws ApiGatewayException {
+    return toDto(requestObject, fetchChannel(requestObject));
+  }
+
+  /** Fetches a channel that a batch read has already found to be missing from the cache. */
+  public PublicationChannelDto fetchMissingFromCache(RequestObject requestObject)
+      throws ApiGatewayException {
+    var notFoundException =
+        new CachedPublicationChannelNotFoundException(requestObject.identifier());
+    var channel =
+        fetchChannelRememberingOutcome(
+            requestObject, () -> fetchChannelAfterCacheMiss(requestObject, notFoundException));
+    return toDto(requestObject, channel);
+  }
+
+  public PublicationChannelDto toDto(
+      RequestObject requestObject, ThirdPartyPublicationChannel channel) {
     var basUri =
         constructPublicationChannelIdBaseUri(requestObject.channelType().getNvaPathElement());
     var year = requestObject.getYear().orElse(null);
 
-    var channel = fetchChannel(requestObject);
-
     return switch (channel) {
       case ChannelRegistrySerialPublication serialPublication ->
           SerialPublicationDto.create(basUri, serialPublication, year);
@@ -103,11 +152,68 @@ public class PublicationChannelService {
     return failure -> e;
   }
 
-  private ThirdPartyPublicationChannel fetchChannel(RequestObject requestObject)
+  public ThirdPartyPublicationChannel fetchChannel(RequestObject requestObject)
+      throws ApiGatewayException {
+    return fetchChannelRememberingOutcome(
+        requestObject,
+        () ->
+            shouldUseCache()
+                ? fetchChannelFromCacheWithApiFallback(requestObject)
+                : fetchChannelFromApiWithCacheFallback(requestObject));
+  }
+
+  /**
+   * Returns the channel if this service has recently fetched it. Throws the remembered outcome if
+   * the channel was not found or has moved, and returns empty if nothing is known about it.
+   */
+  public Optional<ThirdPartyPublicationChannel> findRemembered(RequestObject requestObject)
       throws ApiGatewayException {
-    return shouldUseCache()
-        ? fetchChannelFromCacheWithApiFallback(requestObject)
-        : fetchChannelFromApiWithCacheFallback(requestObject);
+    var cachedChannel = channelCache.get(requestObject);
+    if (cachedChannel.isPresent()) {
+      return cachedChannel;
+    }
+    var knownNotFound = notFoundCache.get(requestObject);
+    if (knownNotFound.isPresent()) {
+      throw new NotFoundException(knownNotFound.get());
+    }
+    var knownRedirect = redirects.get(requestObject.identifier());
+    if (knownRedirect.isPresent()) {
+      throw channelMovedException(requestObject, knownRedirect.get());
+    }
+    return Optional.empty();
+  }
+
+  /** Reads channels from the cache in one batch, and remembers those found like single fetches. */
+  public BatchReadResult readFromCache(List<RequestObject> requestObjects) {
+    if (!shouldUseCache() || requestObjects.isEmpty()) {
+      return BatchReadResult.allMissing(requestObjects);
+    }
+    var result =
+        attempt(() -> cacheService.getChannels(requestObjects))
+            .orElse(
+                failure -> {
+                  LOGGER.warn("Could not read batch from cache", failure.getException());
+                  return BatchReadResult.allMissing(requestObjects);
+                });
+    result.found().forEach(channelCache::put);
+    return result;
+  }
+
+  private ThirdPartyPublicationChannel fetchChannelRememberingOutcome(
+      RequestObject requestObject, Loader<ThirdPartyPublicationChannel, ApiGatewayException> loader)
+      throws ApiGatewayException {
+    var remembered = findRemembered(requestObject);
+    if (remembered.isPresent()) {
+      return remembered.get();
+    }
+    try {
+      var channel = loader.load();
+      channelCache.put(requestObject, channel);
+      return channel;
+    } catch (NotFoundException notFoundException) {
+      notFoundCache.put(requestObject, notFoundException.getMessage());
+      throw notFoundException;
+    }
   }
 
   private ThirdPartyPublicationChannel fetchFromCacheWhenServerError(
@@ -127,17 +233,78 @@ public class PublicationChannelService {
           FETCHING_FROM_CHANNEL_REGISTER_MESSAGE,
           requestObject.channelType(),
           requestObject.identifier());
-      return publicationChannelClient.getChannel(requestObject);
+      return getChannelFromRegister(requestObject);
     } catch (PublicationChannelMovedException movedException) {
-      throw new PublicationChannelMovedException(
-          "%s moved".formatted(requestObject.channelType()),
-          constructNewLocation(movedException.getLocation(), requestObject));
+      var newIdentifier =
+          UriWrapper.fromUri(movedException.getLocation())
+              .getPath()
+              .getPathElementByIndexFromEnd(1);
+      rememberRedirect(requestObject.identifier(), newIdentifier);
+      throw channelMovedException(requestObject, newIdentifier);
+    }
+  }
+
+  private ThirdPartyPublicationChannel fetchChannelAfterCacheMiss(
+      RequestObject requestObject, CachedPublicationChannelNotFoundException notFoundException)
+      throws ApiGatewayException {
+    var redirect = findPersistedRedirect(requestObject.identifier());
+    if (redirect.isPresent()) {
+      throw channelMovedException(requestObject, redirect.get());
     }
+    return fetchChannelFromChannelRegisterWhenNotCached(requestObject, notFoundException);
+  }
+
+  private ThirdPartyPublicationChannel fetchChannelFromChannelRegisterWhenNotCached(
+      RequestObject requestObject, CachedPublicationChannelNotFoundException notFoundException)
+      throws ApiGatewayException {
+    return attempt(() -> fetchChannelFromChannelRegister(requestObject))
+        .orElseThrow(failure -> asRegistryFailure(failure, notFoundException));
+  }
+
+  private static ApiGatewayException asRegistryFailure(
+      Failure<ThirdPartyPublicationChannel> failure,
+      CachedPublicationChannelNotFoundException notFoundException) {
+    return switch (failure.getException()) {
+      case PublicationChannelMovedException movedException -> movedException;
+      case NotFoundException ignored -> notFoundException;
+      case ApiGatewayException registryException -> registryException;
+      default -> new BadGatewayException(failure.getException().getMessage());
+    };
+  }
+
+  private void rememberRedirect(String identifier, String newIdentifier) {
+    redirects.put(identifier, newIdentifier);
+    if (!shouldUseCache()) {
+      return;
+    }
+    try {
+      cacheService.saveRedirect(identifier, newIdentifier);
+    } catch (RuntimeException e) {
+      LOGGER.warn("Could not persist redirect from {} to {}", identifier, newIdentifier, e);
+    }
+  }
+
+  private Optional<String> findPersistedRedirect(String identifier) {
+    var redirect =
+        attempt(() -> cacheService.getRedirect(identifier)).orElse(failure -> Optional.empty());
+    redirect.ifPresent(newIdentifier -> redirects.put(identifier, newIdentifier));
+    return redirect;
+  }
+
+  private PublicationChannelMovedException channelMovedException(
+      RequestObject requestObject, String newIdentifier) {
+    return new PublicationChannelMovedException(
+        "%s moved".formatted(requestObject.channelType()),
+        constructNewLocation(newIdentifier, requestObject));
+  }
+
+  private ThirdPartyPublicationChannel getChannelFromRegister(RequestObject requestObject)
+      throws ApiGatewayException {
+    return registryFetches.execute(
+        requestObject, () -> publicationChannelClient.getChannel(requestObject));
   }
 
-  private URI constructNewLocation(URI channelRegistryLocation, RequestObject requestObject) {
-    var newIdentifier =
-        UriWrapper.fromUri(channelRegistryLocation).getPath().getPathElementByIndexFromEnd(1);
+  private URI constructNewLocation(String newIdentifier, RequestObject requestObject) {
     var uriWrapper =
         UriWrapper.fromUri(
                 constructPublicationChannelIdBaseUri(
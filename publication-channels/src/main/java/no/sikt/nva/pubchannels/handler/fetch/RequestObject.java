@@ -20,6 +20,20 @@ public record RequestObject(ChannelType channelType, String identifier, String y
     return requestObject;
   }
 
+  public static RequestObject fromValues(String type, String identifier, String year)
+      throws BadRequestException {
+    var channelType =
+        attempt(() -> ChannelType.fromNvaPathElement(type.trim()))
+            .orElseThrow(failure -> new BadRequestException("Invalid type"));
+    var requestObject =
+        new RequestObject(
+            channelType,
+            normalizeIdentifier(identifier),
+            Optional.ofNullable(year).map(String::trim).orElse(null));
+    requestObject.validate(new Validator());
+    return requestObject;
+  }
+
   // FIXME: NP-48927
   @SuppressWarnings("PMD.AvoidCatchingGenericException")
   public void validate(Validator validator) throws BadRequestException {
@@ -45,7 +59,12 @@ public record RequestObject(ChannelType channelType, String identifier, String y
   }
 
   private static String getIdentifier(RequestInfo requestInfo) throws BadRequestException {
-    return attempt(() -> requestInfo.getPathParameter("identifier").trim())
+    return normalizeIdentifier(
+        attempt(() -> requestInfo.getPathParameter("identifier")).orElse(failure -> null));
+  }
+
+  private static String normalizeIdentifier(String identifier) throws BadRequestException {
+    return attempt(() -> identifier.trim())
         .map(UUID::fromString)
         .map(UUID::toString)
         .map(String::toUpperCase)
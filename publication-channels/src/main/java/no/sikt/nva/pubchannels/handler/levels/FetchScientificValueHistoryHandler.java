@@ -0,0 +1,75 @@
+package no.sikt.nva.pubchannels.handler.levels;
+
+import static java.net.HttpURLConnection.HTTP_OK;
+import static no.sikt.nva.pubchannels.handler.fetch.PublicationChannelService.CACHE_MAX_AGE_SECONDS;
+import static nva.commons.apigateway.MediaType.JSON_UTF_8;
+import static nva.commons.apigateway.MediaTypes.APPLICATION_JSON_LD;
+import static org.apache.hc.core5.http.HttpHeaders.CACHE_CONTROL;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import java.util.List;
+import java.util.Map;
+import no.sikt.nva.pubchannels.channelregistry.ChannelRegistryClient;
+import no.sikt.nva.pubchannels.channelregistrycache.db.service.CacheService;
+import no.sikt.nva.pubchannels.handler.PublicationChannelFetchClient;
+import no.sikt.nva.pubchannels.handler.fetch.PublicationChannelService;
+import no.sikt.nva.pubchannels.handler.fetch.RequestObject;
+import no.sikt.nva.pubchannels.utils.AppConfig;
+import no.sikt.nva.pubchannels.utils.ApplicationConfiguration;
+import nva.commons.apigateway.ApiGatewayHandler;
+import nva.commons.apigateway.MediaType;
+import nva.commons.apigateway.RequestInfo;
+import nva.commons.apigateway.exceptions.ApiGatewayException;
+import nva.commons.core.Environment;
+import nva.commons.core.JacocoGenerated;
+
+public class FetchScientificValueHistoryHandler
+    extends ApiGatewayHandler<Void, ScientificValueHistoryDto> {
+
+  private final ScientificValueHistoryService scientificValueHistoryService;
+
+  @JacocoGenerated
+  public FetchScientificValueHistoryHandler() {
+    this(
+        new Environment(),
+        ChannelRegistryClient.defaultInstance(),
+        CacheService.defaultInstance(),
+        ApplicationConfiguration.defaultAppConfigClientInstance());
+  }
+
+  public FetchScientificValueHistoryHandler(
+      Environment environment,
+      PublicationChannelFetchClient channelRegistryClient,
+      CacheService cacheService,
+      AppConfig appConfig) {
+    super(Void.class, environment);
+    var publicationChannelService =
+        new PublicationChannelService(channelRegistryClient, cacheService, appConfig, environment);
+    this.scientificValueHistoryService =
+        new ScientificValueHistoryService(publicationChannelService, cacheService);
+  }
+
+  @Override
+  protected List<MediaType> listSupportedMediaTypes() {
+    return List.of(JSON_UTF_8, APPLICATION_JSON_LD);
+  }
+
+  @Override
+  protected void validateRequest(Void input, RequestInfo requestInfo, Context context)
+      throws ApiGatewayException {}
+
+  @Override
+  protected ScientificValueHistoryDto processInput(
+      Void input, RequestInfo requestInfo, Context context) throws ApiGatewayException {
+    addAdditionalHeaders(() -> Map.of(CACHE_CONTROL, "max-age=" + CACHE_MAX_AGE_SECONDS));
+    var requestObject =
+        RequestObject.fromValues(
+            requestInfo.getPathParameter("type"), requestInfo.getPathParameter("identifier"), null);
+    return scientificValueHistoryService.fetch(requestObject);
+  }
+
+  @Override
+  protected Integer getSuccessStatusCode(Void input, ScientificValueHistoryDto output) {
+    return HTTP_OK;
+  }
+}
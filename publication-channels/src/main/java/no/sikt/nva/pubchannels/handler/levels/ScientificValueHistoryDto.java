@@ -0,0 +1,66 @@
+package no.sikt.nva.pubchannels.handler.levels;
+
+import java.net.URI;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import no.sikt.nva.pubchannels.channelregistry.mapper.ScientificValueMapper;
+import no.sikt.nva.pubchannels.channelregistrycache.ChannelRegistryCacheEntry;
+import no.sikt.nva.pubchannels.channelregistrycache.LevelForYear;
+import no.sikt.nva.pubchannels.handler.ScientificValue;
+import no.sikt.nva.pubchannels.handler.ScientificValueReviewNotice;
+import no.sikt.nva.pubchannels.handler.ThirdPartyPublicationChannel;
+import no.unit.nva.commons.json.JsonSerializable;
+import nva.commons.core.paths.UriWrapper;
+
+public record ScientificValueHistoryDto(
+    URI id, String identifier, String name, List<YearlyScientificValue> levels)
+    implements JsonSerializable {
+
+  private static final String LEVELS_PATH_ELEMENT = "levels";
+
+  public static ScientificValueHistoryDto fromCacheEntry(
+      URI selfUriBase, ChannelRegistryCacheEntry entry) {
+    var mapper = new ScientificValueMapper();
+    var levels =
+        entry.getLevelHistory().stream()
+            .sorted(Comparator.comparing(LevelForYear::year))
+            .map(level -> YearlyScientificValue.fromLevel(mapper, level))
+            .toList();
+    return new ScientificValueHistoryDto(
+        createId(selfUriBase, entry.getPidAsString()),
+        entry.getPidAsString(),
+        entry.getOriginalTitle(),
+        levels);
+  }
+
+  public static ScientificValueHistoryDto fromChannel(
+      URI selfUriBase, ThirdPartyPublicationChannel channel) {
+    var levels =
+        channel
+            .getYear()
+            .map(
+                year ->
+                    new YearlyScientificValue(
+                        year, channel.getScientificValue(), channel.reviewNotice()))
+            .stream()
+            .toList();
+    return new ScientificValueHistoryDto(
+        createId(selfUriBase, channel.identifier()), channel.identifier(), channel.name(), levels);
+  }
+
+  public static URI createId(URI selfUriBase, String identifier) {
+    return UriWrapper.fromUri(selfUriBase).addChild(identifier, LEVELS_PATH_ELEMENT).getUri();
+  }
+
+  public record YearlyScientificValue(
+      String year, ScientificValue scientificValue, ScientificValueReviewNotice reviewNotice) {
+
+    private static YearlyScientificValue fromLevel(
+        ScientificValueMapper mapper, LevelForYear level) {
+      var scientificValue =
+          Optional.ofNullable(mapper.map(level.level())).orElse(ScientificValue.UNASSIGNED);
+      return new YearlyScientificValue(level.year(), scientificValue, null);
+    }
+  }
+}
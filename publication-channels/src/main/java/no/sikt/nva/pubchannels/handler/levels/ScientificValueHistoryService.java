@@ -0,0 +1,52 @@
+package no.sikt.nva.pubchannels.handler.levels;
+
+import java.net.URI;
+import no.sikt.nva.pubchannels.channelregistry.PublicationChannelMovedException;
+import no.sikt.nva.pubchannels.channelregistrycache.CachedPublicationChannelNotFoundException;
+import no.sikt.nva.pubchannels.channelregistrycache.db.service.CacheService;
+import no.sikt.nva.pubchannels.handler.fetch.PublicationChannelService;
+import no.sikt.nva.pubchannels.handler.fetch.RequestObject;
+import nva.commons.apigateway.exceptions.ApiGatewayException;
+import nva.commons.core.paths.UriWrapper;
+
+/**
+ * The cached register holds the level of every year, so the history is answered from a single
+ * cache read. The registry only exposes one year per call, so channels missing from the cache get
+ * the history of the current year only.
+ */
+public class ScientificValueHistoryService {
+
+  private final PublicationChannelService publicationChannelService;
+  private final CacheService cacheService;
+
+  public ScientificValueHistoryService(
+      PublicationChannelService publicationChannelService, CacheService cacheService) {
+    this.publicationChannelService = publicationChannelService;
+    this.cacheService = cacheService;
+  }
+
+  public ScientificValueHistoryDto fetch(RequestObject requestObject) throws ApiGatewayException {
+    var selfUriBase =
+        publicationChannelService.constructPublicationChannelIdBaseUri(
+            requestObject.channelType().getNvaPathElement());
+    try {
+      var entry = cacheService.getEntry(requestObject.identifier());
+      return ScientificValueHistoryDto.fromCacheEntry(selfUriBase, entry);
+    } catch (CachedPublicationChannelNotFoundException notCached) {
+      return fetchFromChannelRegistry(requestObject, selfUriBase);
+    }
+  }
+
+  private ScientificValueHistoryDto fetchFromChannelRegistry(
+      RequestObject requestObject, URI selfUriBase) throws ApiGatewayException {
+    try {
+      var channel = publicationChannelService.fetchChannel(requestObject);
+      return ScientificValueHistoryDto.fromChannel(selfUriBase, channel);
+    } catch (PublicationChannelMovedException movedException) {
+      var newIdentifier = UriWrapper.fromUri(movedException.getLocation()).getLastPathElement();
+      throw new PublicationChannelMovedException(
+          movedException.getMessage(),
+          ScientificValueHistoryDto.createId(selfUriBase, newIdentifier));
+    }
+  }
+}
@@ -1,5 +1,8 @@
 package no.sikt.nva.pubchannels.handler.search;
 
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static no.sikt.nva.pubchannels.handler.validator.Validator.validateCursorPagination;
 import static no.sikt.nva.pubchannels.handler.validator.Validator.validatePagination;
 import static no.sikt.nva.pubchannels.handler.validator.Validator.validateString;
 import static no.sikt.nva.pubchannels.handler.validator.Validator.validateYear;
@@ -12,13 +15,35 @@ import static org.apache.hc.core5.http.HttpHeaders.CACHE_CONTROL;
 import com.amazonaws.services.lambda.runtime.Context;
 import java.net.HttpURLConnection;
 import java.net.URI;
+import java.time.Duration;
+import java.time.Year;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
 import no.sikt.nva.pubchannels.channelregistry.ChannelRegistryClient;
 import no.sikt.nva.pubchannels.channelregistry.ChannelType;
+import no.sikt.nva.pubchannels.channelregistrycache.db.service.CacheService;
+import no.sikt.nva.pubchannels.channelregistrycache.search.LocalSearchIndex;
+import no.sikt.nva.pubchannels.channelregistrycache.search.LocalSearchResponse;
 import no.sikt.nva.pubchannels.handler.PublicationChannelClient;
 import no.sikt.nva.pubchannels.handler.ThirdPartyPublicationChannel;
+import no.sikt.nva.pubchannels.utils.AppConfig;
+import no.sikt.nva.pubchannels.utils.ApplicationConfiguration;
+import no.sikt.nva.pubchannels.utils.ExpiringCache;
+import no.sikt.nva.pubchannels.utils.ExpiringCache.Statistics;
+import no.sikt.nva.pubchannels.utils.SingleFlight;
 import no.unit.nva.commons.pagination.PaginatedSearchResult;
 import nva.commons.apigateway.ApiGatewayHandler;
 import nva.commons.apigateway.MediaType;
@@ -28,39 +53,98 @@ import nva.commons.apigateway.exceptions.BadRequestException;
 import nva.commons.core.Environment;
 import nva.commons.core.JacocoGenerated;
 import nva.commons.core.paths.UriWrapper;
-import org.apache.commons.validator.routines.ISSNValidator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public abstract class SearchByQueryHandler<T>
     extends ApiGatewayHandler<Void, PaginatedSearchResult<T>> {
 
+  private static final Logger LOGGER = LoggerFactory.getLogger(SearchByQueryHandler.class);
   private static final int CACHE_MAX_AGE_SECONDS = 300;
+  private static final int SEARCH_RESULT_CACHE_MAX_SIZE = 1000;
+  private static final int MAX_CONCURRENT_PREFETCHES = 2;
   private static final String ENV_API_DOMAIN = "API_DOMAIN";
   private static final String ENV_CUSTOM_DOMAIN_BASE_PATH = "CUSTOM_DOMAIN_BASE_PATH";
-  private static final String ISSN_QUERY_PARAM = "issn";
   private static final String YEAR_QUERY_PARAM = "year";
   private static final String QUERY_PARAM = "query";
-  private static final String NAME_QUERY_PARAM = "name";
-  private static final String PAGENO_QUERY_PARAM = "pageno";
-  private static final String PAGECOUNT_QUERY_PARAM = "pagecount";
+  private static final String CURSOR_QUERY_PARAM = "cursor";
   private final String pathElement;
   private final PublicationChannelClient publicationChannelClient;
   private final ChannelType channelType;
+  private final CacheService cacheService;
+  private final AppConfig appConfig;
+  private final Supplier<LocalSearchIndex> localSearchIndex;
+  private final ExpiringCache<SearchResultKey, ThirdPartySearchResponse> searchResults =
+      new ExpiringCache<>(SEARCH_RESULT_CACHE_MAX_SIZE, Duration.ofSeconds(CACHE_MAX_AGE_SECONDS));
+  private final SingleFlight<SearchResultKey, ThirdPartySearchResponse> registrySearches =
+      new SingleFlight<>();
+  private final ConcurrentMap<SearchResultKey, Prefetch> prefetches = new ConcurrentHashMap<>();
+  private final Semaphore prefetchPermits = new Semaphore(MAX_CONCURRENT_PREFETCHES);
+  private final Executor prefetchExecutor;
 
   @JacocoGenerated
   protected SearchByQueryHandler(String pathElement, ChannelType channelType) {
-    super(Void.class, new Environment());
-    this.publicationChannelClient = ChannelRegistryClient.defaultInstance();
-    this.pathElement = pathElement;
-    this.channelType = channelType;
+    this(
+        new Environment(),
+        ChannelRegistryClient.defaultInstance(),
+        CacheService.defaultInstance(),
+        ApplicationConfiguration.defaultAppConfigClientInstance(),
+        LocalSearchIndex::defaultInstance,
+        newPrefetchExecutor(),
+        pathElement,
+        channelType);
+    preloadLocalSearchIndex();
+  }
+
+  protected SearchByQueryHandler(
+      Environment environment,
+      PublicationChannelClient publicationChannelClient,
+      String pathElement,
+      ChannelType channelType) {
+    this(
+        environment,
+        publicationChannelClient,
+        null,
+        () -> false,
+        () -> null,
+        pathElement,
+        channelType);
+  }
+
+  protected SearchByQueryHandler(
+      Environment environment,
+      PublicationChannelClient publicationChannelClient,
+      CacheService cacheService,
+      AppConfig appConfig,
+      Supplier<LocalSearchIndex> localSearchIndex,
+      String pathElement,
+      ChannelType channelType) {
+    this(
+        environment,
+        publicationChannelClient,
+        cacheService,
+        appConfig,
+        localSearchIndex,
+        Runnable::run,
+        pathElement,
+        channelType);
   }
 
   protected SearchByQueryHandler(
       Environment environment,
       PublicationChannelClient publicationChannelClient,
+      CacheService cacheService,
+      AppConfig appConfig,
+      Supplier<LocalSearchIndex> localSearchIndex,
+      Executor prefetchExecutor,
       String pathElement,
       ChannelType channelType) {
     super(Void.class, environment);
     this.publicationChannelClient = publicationChannelClient;
+    this.cacheService = cacheService;
+    this.appConfig = appConfig;
+    this.localSearchIndex = localSearchIndex;
+    this.prefetchExecutor = prefetchExecutor;
     this.pathElement = pathElement;
     this.channelType = channelType;
   }
@@ -80,7 +164,8 @@ public abstract class SearchByQueryHandler<T>
   protected PaginatedSearchResult<T> processInput(
       Void input, RequestInfo requestInfo, Context context) throws ApiGatewayException {
     var searchParameters = SearchParameters.fromRequestInfo(requestInfo);
-    var searchResult = searchChannel(searchParameters);
+    var cursor = readCursor(requestInfo, searchParameters.size());
+    var searchResult = searchChannel(searchParameters, cursor, context.getAwsRequestId());
 
     // Create map of query parameters excluding the pagination parameters (offset and size)
     var baseQueryParameters = new HashMap<String, String>();
@@ -88,6 +173,7 @@ public abstract class SearchByQueryHandler<T>
     if (searchParameters.year() != null) {
       baseQueryParameters.put(YEAR_QUERY_PARAM, searchParameters.year());
     }
+    cursor.ifPresent(value -> baseQueryParameters.put(CURSOR_QUERY_PARAM, value.encode()));
 
     addAdditionalHeaders(() -> Map.of(CACHE_CONTROL, "max-age=" + CACHE_MAX_AGE_SECONDS));
 
@@ -120,45 +206,240 @@ public abstract class SearchByQueryHandler<T>
               var parameters = SearchParameters.fromRequestInfo(requestInfo);
               validateYear(parameters.year());
               validateString(parameters.query(), 4, 300, "Query");
-              validatePagination(parameters.offset(), parameters.size());
+              var cursor = readCursor(requestInfo, parameters.size());
+              if (cursor.isPresent()) {
+                validateCursorPagination(
+                    parameters.offset(), parameters.size(), cursor.get().registryPageSize());
+              } else {
+                validatePagination(parameters.offset(), parameters.size());
+              }
               return null;
             })
         .orElseThrow(fail -> new BadRequestException(fail.getException().getMessage()));
   }
 
-  private ThirdPartySearchResponse searchChannel(SearchParameters searchParameters)
+  private static Optional<SearchCursor> readCursor(RequestInfo requestInfo, int size) {
+    return requestInfo
+        .getQueryParameterOpt(CURSOR_QUERY_PARAM)
+        .map(token -> SearchCursor.parse(token, size));
+  }
+
+  private ThirdPartySearchResponse searchChannel(
+      SearchParameters searchParameters, Optional<SearchCursor> cursor, String invocationId)
       throws ApiGatewayException {
-    var queryParams = getQueryParams(searchParameters);
-    return publicationChannelClient.searchChannel(channelType, queryParams);
+    if (appConfig.shouldUseLocalSearch()) {
+      var localResult = attempt(() -> searchLocalIndex(searchParameters));
+      if (localResult.isSuccess()) {
+        return localResult.get();
+      }
+      LOGGER.warn(
+          "Local search failed, falling back to channel register", localResult.getException());
+    }
+    if (appConfig.shouldUseCache() && searchParameters.isIssnQuery()) {
+      var cachedResult = attempt(() -> searchCacheByIssn(searchParameters));
+      if (cachedResult.isSuccess() && cachedResult.get().totalResults() > 0) {
+        return cachedResult.get();
+      }
+      if (cachedResult.isFailure()) {
+        LOGGER.warn(
+            "ISSN lookup in cache failed, falling back to channel register",
+            cachedResult.getException());
+      }
+    }
+    if (cursor.isPresent()) {
+      return searchChannelRegister(searchParameters, cursor.get(), invocationId);
+    }
+    var response =
+        searchChannelRegister(searchParameters.toChannelRegistryQueryParameters(), invocationId);
+    if (isPaging(searchParameters)) {
+      prefetchNextPage(searchParameters, response, invocationId);
+    }
+    return response;
   }
 
-  private List<T> getHits(
-      URI baseUri, ThirdPartySearchResponse searchResult, String requestedYear) {
-    return searchResult.resultSet().pageResult().stream()
-        .map(result -> createResult(baseUri, result, requestedYear))
-        .toList();
+  public Statistics searchResultCacheStatistics() {
+    return searchResults.statistics();
+  }
+
+  // Identical searches within the max-age of the response are answered from this container
+  private ThirdPartySearchResponse searchChannelRegister(
+      Map<String, String> queryParams, String invocationId) throws ApiGatewayException {
+    var key = SearchResultKey.create(channelType, queryParams);
+    var cached = searchResults.get(key);
+    var statistics = searchResults.statistics();
+    LOGGER.info(
+        "Search result cache {}: {} hits, {} misses, hit rate {}",
+        cached.isPresent() ? "hit" : "miss",
+        statistics.hits(),
+        statistics.misses(),
+        String.format(Locale.ROOT, "%.2f", statistics.hitRate()));
+    if (cached.isPresent()) {
+      return cached.get();
+    }
+    return fetchIntoCache(key, queryParams, invocationId);
+  }
+
+  // Cuts the requested page out of the register pages pinned by the cursor, which are cached and
+  // prefetched like any other search, so a scan with the cursor reads each register page once
+  private ThirdPartySearchResponse searchChannelRegister(
+      SearchParameters searchParameters, SearchCursor cursor, String invocationId)
+      throws ApiGatewayException {
+    var registryPageSize = cursor.registryPageSize();
+    var firstRegistryPage = searchParameters.offset() / registryPageSize;
+    var lastRegistryPage =
+        (searchParameters.offset() + searchParameters.size() - 1) / registryPageSize;
+    var hits = new ArrayList<ThirdPartyPublicationChannel>();
+    Integer totalResults = null;
+    for (var page = firstRegistryPage; page <= lastRegistryPage; page++) {
+      var registryPage =
+          new SearchParameters(
+              searchParameters.query(),
+              page * registryPageSize,
+              registryPageSize,
+              searchParameters.year());
+      var response =
+          searchChannelRegister(registryPage.toChannelRegistryQueryParameters(), invocationId);
+      prefetchNextPage(registryPage, response, invocationId);
+      totalResults = response.pageInformation().totalResults();
+      hits.addAll(response.resultSet().pageResult());
+      if (response.resultSet().pageResult().size() < registryPageSize) {
+        break;
+      }
+    }
+    var from = Math.min(searchParameters.offset() % registryPageSize, hits.size());
+    var to = Math.min(from + searchParameters.size(), hits.size());
+    return new LocalSearchResponse(
+        List.copyOf(hits.subList(from, to)), nonNull(totalResults) ? totalResults : 0);
+  }
+
+  // A request only waits for a prefetch started within the same invocation. A prefetch from an
+  // earlier invocation may have been frozen with the container, so the page is searched again.
+  private ThirdPartySearchResponse fetchIntoCache(
+      SearchResultKey key, Map<String, String> queryParams, String invocationId)
+      throws ApiGatewayException {
+    var prefetched =
+        Optional.ofNullable(prefetches.get(key))
+            .filter(prefetch -> Objects.equals(prefetch.invocationId(), invocationId))
+            .flatMap(Prefetch::await);
+    if (prefetched.isPresent()) {
+      return prefetched.get();
+    }
+    var response =
+        registrySearches.execute(
+            key, () -> publicationChannelClient.searchChannel(channelType, queryParams));
+    searchResults.put(key, response);
+    return response;
   }
 
-  private Map<String, String> getQueryParams(SearchParameters parameters) {
-    var queryParams = new HashMap<String, String>();
-    var query = parameters.query();
+  // Most searches never go past the first page, so only a client that is already paging gets the
+  // next page prefetched
+  private static boolean isPaging(SearchParameters searchParameters) {
+    return searchParameters.offset() > 0;
+  }
 
-    if (parameters.year() != null) {
-      queryParams.put(YEAR_QUERY_PARAM, parameters.year());
+  @SuppressWarnings("PMD.DoNotUseThreads")
+  private void prefetchNextPage(
+      SearchParameters current, ThirdPartySearchResponse response, String invocationId) {
+    var nextOffset = current.offset() + current.size();
+    var totalResults = response.pageInformation().totalResults();
+    if (isNull(totalResults) || nextOffset >= totalResults) {
+      return;
     }
+    var nextPage =
+        new SearchParameters(current.query(), nextOffset, current.size(), current.year())
+            .toChannelRegistryQueryParameters();
+    var key = SearchResultKey.create(channelType, nextPage);
+    if (searchResults.contains(key) || !prefetchPermits.tryAcquire()) {
+      return;
+    }
+    var prefetch = new Prefetch(invocationId, new CompletableFuture<>());
+    if (nonNull(prefetches.putIfAbsent(key, prefetch))) {
+      prefetchPermits.release();
+      return;
+    }
+    try {
+      prefetchExecutor.execute(() -> prefetch(key, nextPage, prefetch));
+    } catch (RejectedExecutionException e) {
+      prefetches.remove(key, prefetch);
+      prefetch.response().complete(null);
+      prefetchPermits.release();
+    }
+  }
 
-    if (isQueryParameterIssn(query)) {
-      queryParams.put(ISSN_QUERY_PARAM, query.trim());
-    } else {
-      queryParams.put(NAME_QUERY_PARAM, query.trim());
+  private void prefetch(SearchResultKey key, Map<String, String> queryParams, Prefetch prefetch) {
+    try {
+      var response =
+          attempt(() -> publicationChannelClient.searchChannel(channelType, queryParams))
+              .orElse(
+                  failure -> {
+                    LOGGER.warn(
+                        "Prefetch of next search result page failed", failure.getException());
+                    return null;
+                  });
+      if (nonNull(response)) {
+        searchResults.put(key, response);
+      }
+      prefetch.response().complete(response);
+    } finally {
+      prefetches.remove(key, prefetch);
+      prefetchPermits.release();
     }
+  }
 
-    queryParams.put(PAGENO_QUERY_PARAM, String.valueOf(parameters.offset() / parameters.size()));
-    queryParams.put(PAGECOUNT_QUERY_PARAM, String.valueOf(parameters.size()));
-    return queryParams;
+  // The index is built while the function initializes rather than within the first search
+  @JacocoGenerated
+  private void preloadLocalSearchIndex() {
+    if (attempt(appConfig::shouldUseLocalSearch).orElse(failure -> false)) {
+      LocalSearchIndex.preloadDefaultInstance();
+    }
   }
 
-  private boolean isQueryParameterIssn(String query) {
-    return ISSNValidator.getInstance().isValid(query.trim());
+  @JacocoGenerated
+  @SuppressWarnings("PMD.DoNotUseThreads")
+  private static Executor newPrefetchExecutor() {
+    return Executors.newFixedThreadPool(MAX_CONCURRENT_PREFETCHES);
+  }
+
+  private ThirdPartySearchResponse searchLocalIndex(SearchParameters searchParameters) {
+    return localSearchIndex
+        .get()
+        .search(
+            channelType,
+            searchParameters.query(),
+            searchParameters.year(),
+            searchParameters.offset(),
+            searchParameters.size());
+  }
+
+  private LocalSearchResponse searchCacheByIssn(SearchParameters searchParameters) {
+    var year =
+        nonNull(searchParameters.year()) ? searchParameters.year() : Year.now().toString();
+    var channels =
+        cacheService.findByIssn(searchParameters.query().trim()).stream()
+            .filter(entry -> entry.isOfType(channelType))
+            .toList();
+    var hits =
+        channels.stream()
+            .skip(searchParameters.offset())
+            .limit(searchParameters.size())
+            .map(entry -> entry.toThirdPartyPublicationChannel(channelType, year))
+            .toList();
+    return new LocalSearchResponse(hits, channels.size());
+  }
+
+  private List<T> getHits(
+      URI baseUri, ThirdPartySearchResponse searchResult, String requestedYear) {
+    return searchResult.resultSet().pageResult().stream()
+        .map(result -> createResult(baseUri, result, requestedYear))
+        .toList();
+  }
+
+  private record Prefetch(
+      String invocationId, CompletableFuture<ThirdPartySearchResponse> response) {
+
+    // A failed prefetch completes with null, and the page is then searched directly
+    private Optional<ThirdPartySearchResponse> await() {
+      return Optional.ofNullable(response.join());
+    }
   }
 }
@@ -0,0 +1,47 @@
+package no.sikt.nva.pubchannels.handler.search;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static nva.commons.core.attempt.Try.attempt;
+
+import java.util.Base64;
+import no.sikt.nva.pubchannels.handler.validator.ValidationException;
+
+/**
+ * Opaque token for paging through all results of a search. It pins the size of the pages read from
+ * the channel register, so pages of any size are cut from the same register pages and each
+ * register page is read once during a scan.
+ */
+record SearchCursor(int registryPageSize) {
+
+  static final String START = "*";
+  private static final int DEFAULT_REGISTRY_PAGE_SIZE = 100;
+  private static final String VERSION = "v1";
+  private static final String SEPARATOR = ":";
+
+  static SearchCursor parse(String token, int size) {
+    if (START.equals(token.trim())) {
+      return new SearchCursor(Math.max(size, DEFAULT_REGISTRY_PAGE_SIZE));
+    }
+    var registryPageSize =
+        attempt(() -> decode(token.trim()))
+            .orElseThrow(failure -> new ValidationException("Invalid cursor"));
+    return new SearchCursor(registryPageSize);
+  }
+
+  String encode() {
+    var state = VERSION + SEPARATOR + registryPageSize;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(state.getBytes(UTF_8));
+  }
+
+  private static int decode(String token) {
+    var state = new String(Base64.getUrlDecoder().decode(token), UTF_8).split(SEPARATOR);
+    if (state.length != 2 || !VERSION.equals(state[0])) {
+      throw new IllegalArgumentException("Unknown cursor format");
+    }
+    var registryPageSize = Integer.parseInt(state[1]);
+    if (registryPageSize < 1) {
+      throw new IllegalArgumentException("Invalid page size in cursor");
+    }
+    return registryPageSize;
+  }
+}
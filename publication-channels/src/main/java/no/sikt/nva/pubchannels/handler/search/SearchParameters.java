@@ -1,7 +1,10 @@
 package no.sikt.nva.pubchannels.handler.search;
 
+import java.util.HashMap;
+import java.util.Map;
 import nva.commons.apigateway.RequestInfo;
 import nva.commons.apigateway.exceptions.BadRequestException;
+import org.apache.commons.validator.routines.ISSNValidator;
 
 public record SearchParameters(String query, int offset, int size, String year) {
 
@@ -11,6 +14,10 @@ public record SearchParameters(String query, int offset, int size, String year)
   private static final String QUERY_OFFSET_PARAM = "offset";
   private static final String YEAR_QUERY_PARAM = "year";
   private static final String QUERY_PARAM = "query";
+  private static final String ISSN_QUERY_PARAM = "issn";
+  private static final String NAME_QUERY_PARAM = "name";
+  private static final String PAGENO_QUERY_PARAM = "pageno";
+  private static final String PAGECOUNT_QUERY_PARAM = "pagecount";
 
   public static SearchParameters fromRequestInfo(RequestInfo requestInfo)
       throws BadRequestException {
@@ -26,4 +33,26 @@ public record SearchParameters(String query, int offset, int size, String year)
             .orElse(DEFAULT_QUERY_SIZE),
         requestInfo.getQueryParameterOpt(YEAR_QUERY_PARAM).orElse(null));
   }
+
+  public boolean isIssnQuery() {
+    return ISSNValidator.getInstance().isValid(query.trim());
+  }
+
+  public Map<String, String> toChannelRegistryQueryParameters() {
+    var queryParams = new HashMap<String, String>();
+
+    if (year != null) {
+      queryParams.put(YEAR_QUERY_PARAM, year);
+    }
+
+    if (isIssnQuery()) {
+      queryParams.put(ISSN_QUERY_PARAM, query.trim());
+    } else {
+      queryParams.put(NAME_QUERY_PARAM, query.trim());
+    }
+
+    queryParams.put(PAGENO_QUERY_PARAM, String.valueOf(offset / size));
+    queryParams.put(PAGECOUNT_QUERY_PARAM, String.valueOf(size));
+    return queryParams;
+  }
 }
@@ -0,0 +1,17 @@
+package no.sikt.nva.pubchannels.handler.search;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import no.sikt.nva.pubchannels.channelregistry.ChannelType;
+
+/** Identifies a channel register search, ignoring differences in case and surrounding blanks. */
+record SearchResultKey(ChannelType channelType, Map<String, String> queryParams) {
+
+  static SearchResultKey create(ChannelType channelType, Map<String, String> queryParams) {
+    var normalized = new TreeMap<String, String>();
+    queryParams.forEach(
+        (name, value) -> normalized.put(name, value.trim().toLowerCase(Locale.ROOT)));
+    return new SearchResultKey(channelType, Map.copyOf(normalized));
+  }
+}
@@ -0,0 +1,28 @@
+package no.sikt.nva.pubchannels.handler.search.combined;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import no.sikt.nva.pubchannels.handler.model.PublicationChannelDto;
+import no.sikt.nva.pubchannels.model.Contexts;
+import no.unit.nva.commons.json.JsonSerializable;
+
+/**
+ * One page of hits for each of the searched channel types. {@code totalHits} is the sum of the
+ * totals in {@code totalHitsByType}.
+ */
+public record CombinedSearchResult(
+    URI id,
+    int totalHits,
+    Map<String, Integer> totalHitsByType,
+    URI nextResults,
+    URI previousResults,
+    List<PublicationChannelDto> hits)
+    implements JsonSerializable {
+
+  @JsonProperty("@context")
+  public URI getContext() {
+    return URI.create(Contexts.PUBLICATION_CHANNEL_CONTEXT);
+  }
+}
@@ -0,0 +1,251 @@
+package no.sikt.nva.pubchannels.handler.search.combined;
+
+import static java.net.HttpURLConnection.HTTP_OK;
+import static java.util.Objects.nonNull;
+import static java.util.function.Predicate.not;
+import static no.sikt.nva.pubchannels.handler.validator.Validator.validatePagination;
+import static no.sikt.nva.pubchannels.handler.validator.Validator.validateString;
+import static no.sikt.nva.pubchannels.handler.validator.Validator.validateYear;
+import static nva.commons.apigateway.MediaType.JSON_UTF_8;
+import static nva.commons.apigateway.MediaTypes.APPLICATION_JSON_LD;
+import static nva.commons.core.attempt.Try.attempt;
+import static nva.commons.core.paths.UriWrapper.HTTPS;
+import static org.apache.hc.core5.http.HttpHeaders.CACHE_CONTROL;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import no.sikt.nva.pubchannels.channelregistry.ChannelRegistryClient;
+import no.sikt.nva.pubchannels.channelregistry.ChannelType;
+import no.sikt.nva.pubchannels.handler.AsyncPublicationChannelSearchCreateClient;
+import no.sikt.nva.pubchannels.handler.ThirdPartyPublicationChannel;
+import no.sikt.nva.pubchannels.handler.ThirdPartyPublisher;
+import no.sikt.nva.pubchannels.handler.ThirdPartySerialPublication;
+import no.sikt.nva.pubchannels.handler.model.PublicationChannelDto;
+import no.sikt.nva.pubchannels.handler.model.PublisherDto;
+import no.sikt.nva.pubchannels.handler.model.SerialPublicationDto;
+import no.sikt.nva.pubchannels.handler.search.SearchParameters;
+import no.sikt.nva.pubchannels.handler.search.ThirdPartySearchResponse;
+import nva.commons.apigateway.ApiGatewayHandler;
+import nva.commons.apigateway.MediaType;
+import nva.commons.apigateway.RequestInfo;
+import nva.commons.apigateway.exceptions.ApiGatewayException;
+import nva.commons.apigateway.exceptions.BadGatewayException;
+import nva.commons.apigateway.exceptions.BadRequestException;
+import nva.commons.core.Environment;
+import nva.commons.core.JacocoGenerated;
+import nva.commons.core.paths.UriWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Searches several channel types with one request. The channel register is queried for all types
+ * at once, and the page of hits for each type is returned in the order the types were requested.
+ */
+public class SearchPublicationChannelsByQueryHandler
+    extends ApiGatewayHandler<Void, CombinedSearchResult> {
+
+  private static final Logger LOGGER =
+      LoggerFactory.getLogger(SearchPublicationChannelsByQueryHandler.class);
+  private static final int CACHE_MAX_AGE_SECONDS = 300;
+  private static final String ENV_API_DOMAIN = "API_DOMAIN";
+  private static final String ENV_CUSTOM_DOMAIN_BASE_PATH = "CUSTOM_DOMAIN_BASE_PATH";
+  private static final String SEARCH_PATH_ELEMENT = "search";
+  private static final String QUERY_PARAM = "query";
+  private static final String TYPES_QUERY_PARAM = "types";
+  private static final String YEAR_QUERY_PARAM = "year";
+  private static final String OFFSET_QUERY_PARAM = "offset";
+  private static final String SIZE_QUERY_PARAM = "size";
+  private static final String TYPE_SEPARATOR = ",";
+  private static final List<ChannelType> DEFAULT_CHANNEL_TYPES =
+      List.of(ChannelType.JOURNAL, ChannelType.SERIES, ChannelType.PUBLISHER);
+  private static final String OVERLAPPING_TYPES_MESSAGE =
+      "Type serial-publication includes journals and series, and cannot be combined with them";
+  private final AsyncPublicationChannelSearchCreateClient searchClient;
+
+  @JacocoGenerated
+  public SearchPublicationChannelsByQueryHandler() {
+    this(new Environment(), ChannelRegistryClient.defaultInstance());
+  }
+
+  public SearchPublicationChannelsByQueryHandler(
+      Environment environment, AsyncPublicationChannelSearchCreateClient searchClient) {
+    super(Void.class, environment);
+    this.searchClient = searchClient;
+  }
+
+  @Override
+  protected List<MediaType> listSupportedMediaTypes() {
+    return List.of(JSON_UTF_8, APPLICATION_JSON_LD);
+  }
+
+  @Override
+  protected void validateRequest(Void input, RequestInfo requestInfo, Context context)
+      throws ApiGatewayException {
+    attempt(
+            () -> {
+              var parameters = SearchParameters.fromRequestInfo(requestInfo);
+              validateYear(parameters.year());
+              validateString(parameters.query(), 4, 300, "Query");
+              validatePagination(parameters.offset(), parameters.size());
+              return null;
+            })
+        .orElseThrow(fail -> new BadRequestException(fail.getException().getMessage()));
+    readChannelTypes(requestInfo);
+  }
+
+  @Override
+  protected CombinedSearchResult processInput(
+      Void input, RequestInfo requestInfo, Context context) throws ApiGatewayException {
+    var searchParameters = SearchParameters.fromRequestInfo(requestInfo);
+    var channelTypes = readChannelTypes(requestInfo);
+    var searches = startSearches(channelTypes, searchParameters);
+
+    var totalHitsByType = new LinkedHashMap<String, Integer>();
+    var hits = new ArrayList<PublicationChannelDto>();
+    for (var search : searches.entrySet()) {
+      var channelType = search.getKey();
+      var response = await(search.getValue());
+      totalHitsByType.put(channelType.getNvaPathElement(), totalResults(response));
+      var selfUriBase = constructBaseUri(channelType.getNvaPathElement());
+      response.resultSet().pageResult().stream()
+          .map(channel -> toDto(selfUriBase, channel, searchParameters.year()))
+          .forEach(hits::add);
+    }
+
+    addAdditionalHeaders(() -> Map.of(CACHE_CONTROL, "max-age=" + CACHE_MAX_AGE_SECONDS));
+    return createResult(searchParameters, channelTypes, totalHitsByType, hits);
+  }
+
+  @Override
+  protected Integer getSuccessStatusCode(Void input, CombinedSearchResult output) {
+    return HTTP_OK;
+  }
+
+  // All searches are sent before waiting for any of them, so they run in parallel
+  private Map<ChannelType, CompletableFuture<ThirdPartySearchResponse>> startSearches(
+      List<ChannelType> channelTypes, SearchParameters searchParameters) {
+    var queryParameters = searchParameters.toChannelRegistryQueryParameters();
+    var searches = new LinkedHashMap<ChannelType, CompletableFuture<ThirdPartySearchResponse>>();
+    for (var channelType : channelTypes) {
+      searches.put(channelType, searchClient.searchChannelAsync(channelType, queryParameters));
+    }
+    return searches;
+  }
+
+  private static ThirdPartySearchResponse await(CompletableFuture<ThirdPartySearchResponse> search)
+      throws ApiGatewayException {
+    try {
+      return search.join();
+    } catch (CompletionException exception) {
+      if (exception.getCause() instanceof ApiGatewayException apiGatewayException) {
+        throw apiGatewayException;
+      }
+      LOGGER.error("Unexpected error searching channel register", exception.getCause());
+      throw new BadGatewayException("Unexpected response from upstream!");
+    }
+  }
+
+  private static int totalResults(ThirdPartySearchResponse response) {
+    var totalResults = response.pageInformation().totalResults();
+    return nonNull(totalResults) ? totalResults : 0;
+  }
+
+  private static PublicationChannelDto toDto(
+      URI selfUriBase, ThirdPartyPublicationChannel channel, String requestedYear) {
+    return channel instanceof ThirdPartyPublisher publisher
+        ? PublisherDto.create(selfUriBase, publisher, requestedYear)
+        : SerialPublicationDto.create(
+            selfUriBase, (ThirdPartySerialPublication) channel, requestedYear);
+  }
+
+  private static List<ChannelType> readChannelTypes(RequestInfo requestInfo)
+      throws BadRequestException {
+    var channelTypes =
+        attempt(
+                () ->
+                    requestInfo
+                        .getQueryParameterOpt(TYPES_QUERY_PARAM)
+                        .map(SearchPublicationChannelsByQueryHandler::parseChannelTypes)
+                        .orElse(DEFAULT_CHANNEL_TYPES))
+            .orElseThrow(failure -> new BadRequestException("Invalid types"));
+    if (channelTypes.isEmpty()) {
+      throw new BadRequestException("Types must not be empty");
+    }
+    if (hasOverlappingTypes(channelTypes)) {
+      throw new BadRequestException(OVERLAPPING_TYPES_MESSAGE);
+    }
+    return channelTypes;
+  }
+
+  // The serial publication register holds the journals and series, so combining them would return
+  // the same channels twice and count them twice in the totals
+  private static boolean hasOverlappingTypes(List<ChannelType> channelTypes) {
+    return channelTypes.contains(ChannelType.SERIAL_PUBLICATION)
+        && (channelTypes.contains(ChannelType.JOURNAL)
+            || channelTypes.contains(ChannelType.SERIES));
+  }
+
+  private static List<ChannelType> parseChannelTypes(String types) {
+    return Arrays.stream(types.split(TYPE_SEPARATOR))
+        .map(String::trim)
+        .filter(not(String::isEmpty))
+        .map(ChannelType::fromNvaPathElement)
+        .distinct()
+        .toList();
+  }
+
+  private CombinedSearchResult createResult(
+      SearchParameters searchParameters,
+      List<ChannelType> channelTypes,
+      Map<String, Integer> totalHitsByType,
+      List<PublicationChannelDto> hits) {
+    var offset = searchParameters.offset();
+    var size = searchParameters.size();
+    var largestTotal = totalHitsByType.values().stream().mapToInt(Integer::intValue).max();
+    var totalHits = totalHitsByType.values().stream().mapToInt(Integer::intValue).sum();
+    var nextResults =
+        offset + size < largestTotal.orElse(0)
+            ? searchUri(searchParameters, channelTypes, offset + size)
+            : null;
+    var previousResults =
+        offset > 0 ? searchUri(searchParameters, channelTypes, Math.max(0, offset - size)) : null;
+    return new CombinedSearchResult(
+        searchUri(searchParameters, channelTypes, offset),
+        totalHits,
+        totalHitsByType,
+        nextResults,
+        previousResults,
+        hits);
+  }
+
+  private URI searchUri(
+      SearchParameters searchParameters, List<ChannelType> channelTypes, int offset) {
+    var queryParameters = new LinkedHashMap<String, String>();
+    queryParameters.put(QUERY_PARAM, searchParameters.query());
+    queryParameters.put(
+        TYPES_QUERY_PARAM,
+        String.join(
+            TYPE_SEPARATOR, channelTypes.stream().map(ChannelType::getNvaPathElement).toList()));
+    if (nonNull(searchParameters.year())) {
+      queryParameters.put(YEAR_QUERY_PARAM, searchParameters.year());
+    }
+    queryParameters.put(OFFSET_QUERY_PARAM, String.valueOf(offset));
+    queryParameters.put(SIZE_QUERY_PARAM, String.valueOf(searchParameters.size()));
+    return UriWrapper.fromUri(constructBaseUri(SEARCH_PATH_ELEMENT))
+        .addQueryParameters(queryParameters)
+        .getUri();
+  }
+
+  private URI constructBaseUri(String pathElement) {
+    var apiDomain = environment.readEnv(ENV_API_DOMAIN);
+    var customDomainBasePath = environment.readEnv(ENV_CUSTOM_DOMAIN_BASE_PATH);
+    return new UriWrapper(HTTPS, apiDomain).addChild(customDomainBasePath, pathElement).getUri();
+  }
+}
@@ -1,12 +1,16 @@
 package no.sikt.nva.pubchannels.handler.search.serialpublication;
 
 import java.net.URI;
+import java.util.function.Supplier;
 import no.sikt.nva.pubchannels.channelregistry.ChannelType;
+import no.sikt.nva.pubchannels.channelregistrycache.db.service.CacheService;
+import no.sikt.nva.pubchannels.channelregistrycache.search.LocalSearchIndex;
 import no.sikt.nva.pubchannels.handler.PublicationChannelClient;
 import no.sikt.nva.pubchannels.handler.ThirdPartyPublicationChannel;
 import no.sikt.nva.pubchannels.handler.ThirdPartySerialPublication;
 import no.sikt.nva.pubchannels.handler.model.SerialPublicationDto;
 import no.sikt.nva.pubchannels.handler.search.SearchByQueryHandler;
+import no.sikt.nva.pubchannels.utils.AppConfig;
 import nva.commons.core.Environment;
 import nva.commons.core.JacocoGenerated;
 
@@ -26,6 +30,22 @@ public class SearchSerialPublicationByQueryHandler
     super(environment, publicationChannelClient, PATH_ELEMENT, CHANNEL_TYPE);
   }
 
+  protected SearchSerialPublicationByQueryHandler(
+      Environment environment,
+      PublicationChannelClient publicationChannelClient,
+      CacheService cacheService,
+      AppConfig appConfig,
+      Supplier<LocalSearchIndex> localSearchIndex) {
+    super(
+        environment,
+        publicationChannelClient,
+        cacheService,
+        appConfig,
+        localSearchIndex,
+        PATH_ELEMENT,
+        CHANNEL_TYPE);
+  }
+
   @Override
   protected SerialPublicationDto createResult(
       URI baseUri, ThirdPartyPublicationChannel entityResult, String requestedYear) {
@@ -0,0 +1,128 @@
+package no.sikt.nva.pubchannels.handler.suggest;
+
+import static java.net.HttpURLConnection.HTTP_OK;
+import static no.sikt.nva.pubchannels.handler.validator.Validator.validateString;
+import static nva.commons.apigateway.MediaType.JSON_UTF_8;
+import static nva.commons.apigateway.MediaTypes.APPLICATION_JSON_LD;
+import static nva.commons.core.attempt.Try.attempt;
+import static nva.commons.core.paths.UriWrapper.HTTPS;
+import static org.apache.hc.core5.http.HttpHeaders.CACHE_CONTROL;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import no.sikt.nva.pubchannels.channelregistry.ChannelType;
+import no.sikt.nva.pubchannels.channelregistrycache.search.LocalSearchIndex;
+import nva.commons.apigateway.ApiGatewayHandler;
+import nva.commons.apigateway.MediaType;
+import nva.commons.apigateway.RequestInfo;
+import nva.commons.apigateway.exceptions.ApiGatewayException;
+import nva.commons.apigateway.exceptions.BadGatewayException;
+import nva.commons.apigateway.exceptions.BadRequestException;
+import nva.commons.core.Environment;
+import nva.commons.core.JacocoGenerated;
+import nva.commons.core.paths.UriWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class SuggestPublicationChannelsHandler extends ApiGatewayHandler<Void, SuggestionsDto> {
+
+  private static final Logger LOGGER =
+      LoggerFactory.getLogger(SuggestPublicationChannelsHandler.class);
+  private static final int CACHE_MAX_AGE_SECONDS = 300;
+  private static final String ENV_API_DOMAIN = "API_DOMAIN";
+  private static final String ENV_CUSTOM_DOMAIN_BASE_PATH = "CUSTOM_DOMAIN_BASE_PATH";
+  private static final String TYPE_PATH_PARAM = "type";
+  private static final String PREFIX_QUERY_PARAM = "prefix";
+  private static final String SIZE_QUERY_PARAM = "size";
+  private static final int DEFAULT_SIZE = 10;
+  private static final int MAX_SIZE = 50;
+  private final Supplier<LocalSearchIndex> localSearchIndex;
+
+  @JacocoGenerated
+  public SuggestPublicationChannelsHandler() {
+    this(new Environment(), LocalSearchIndex::defaultInstance);
+    LocalSearchIndex.preloadDefaultInstance();
+  }
+
+  public SuggestPublicationChannelsHandler(
+      Environment environment, Supplier<LocalSearchIndex> localSearchIndex) {
+    super(Void.class, environment);
+    this.localSearchIndex = localSearchIndex;
+  }
+
+  @Override
+  protected List<MediaType> listSupportedMediaTypes() {
+    return List.of(JSON_UTF_8, APPLICATION_JSON_LD);
+  }
+
+  @Override
+  protected void validateRequest(Void input, RequestInfo requestInfo, Context context)
+      throws ApiGatewayException {
+    attempt(
+            () -> {
+              validateString(requestInfo.getQueryParameter(PREFIX_QUERY_PARAM), 1, 300, "Prefix");
+              return null;
+            })
+        .orElseThrow(fail -> new BadRequestException(fail.getException().getMessage()));
+  }
+
+  @Override
+  protected SuggestionsDto processInput(Void input, RequestInfo requestInfo, Context context)
+      throws ApiGatewayException {
+    var channelType = readChannelType(requestInfo);
+    var prefix = requestInfo.getQueryParameter(PREFIX_QUERY_PARAM);
+    var size = readSize(requestInfo);
+    var index =
+        attempt(localSearchIndex::get)
+            .orElseThrow(
+                failure -> {
+                  LOGGER.error("Could not load local search index", failure.getException());
+                  return new BadGatewayException("Suggestions are currently unavailable");
+                });
+    var selfUriBase = constructBaseUri(channelType);
+    var suggestions =
+        index.suggest(channelType, prefix, size).stream()
+            .map(entry -> SuggestionDto.fromCacheEntry(selfUriBase, channelType, entry))
+            .toList();
+
+    addAdditionalHeaders(() -> Map.of(CACHE_CONTROL, "max-age=" + CACHE_MAX_AGE_SECONDS));
+    return new SuggestionsDto(prefix, suggestions);
+  }
+
+  @Override
+  protected Integer getSuccessStatusCode(Void input, SuggestionsDto output) {
+    return HTTP_OK;
+  }
+
+  private static ChannelType readChannelType(RequestInfo requestInfo) throws BadRequestException {
+    return attempt(() -> requestInfo.getPathParameter(TYPE_PATH_PARAM))
+        .map(type -> ChannelType.fromNvaPathElement(type.trim()))
+        .orElseThrow(failure -> new BadRequestException("Invalid type"));
+  }
+
+  private static int readSize(RequestInfo requestInfo) throws BadRequestException {
+    var size =
+        attempt(
+                () ->
+                    requestInfo
+                        .getQueryParameterOpt(SIZE_QUERY_PARAM)
+                        .map(Integer::parseInt)
+                        .orElse(DEFAULT_SIZE))
+            .orElseThrow(failure -> new BadRequestException("Size must be a number"));
+    if (size < 1 || size > MAX_SIZE) {
+      throw new BadRequestException("Size must be between 1 and " + MAX_SIZE);
+    }
+    return size;
+  }
+
+  private URI constructBaseUri(ChannelType channelType) {
+    var apiDomain = environment.readEnv(ENV_API_DOMAIN);
+    var customDomainBasePath = environment.readEnv(ENV_CUSTOM_DOMAIN_BASE_PATH);
+    return new UriWrapper(HTTPS, apiDomain)
+        .addChild(customDomainBasePath, channelType.getNvaPathElement())
+        .getUri();
+  }
+}
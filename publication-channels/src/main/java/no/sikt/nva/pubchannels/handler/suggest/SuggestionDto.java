@@ -0,0 +1,23 @@
+package no.sikt.nva.pubchannels.handler.suggest;
+
+import java.net.URI;
+import java.time.Year;
+import no.sikt.nva.pubchannels.channelregistry.ChannelType;
+import no.sikt.nva.pubchannels.channelregistrycache.ChannelRegistryCacheEntry;
+import no.sikt.nva.pubchannels.handler.ThirdPartyPublisher;
+import no.sikt.nva.pubchannels.handler.model.PublisherDto;
+import nva.commons.core.paths.UriWrapper;
+
+public record SuggestionDto(URI id, String identifier, String name, String type) {
+
+  public static SuggestionDto fromCacheEntry(
+      URI selfUriBase, ChannelType channelType, ChannelRegistryCacheEntry entry) {
+    var channel = entry.toThirdPartyPublicationChannel(channelType, Year.now().toString());
+    var type = channel instanceof ThirdPartyPublisher ? PublisherDto.TYPE : channel.type();
+    return new SuggestionDto(
+        UriWrapper.fromUri(selfUriBase).addChild(channel.identifier()).getUri(),
+        channel.identifier(),
+        channel.name(),
+        type);
+  }
+}
@@ -0,0 +1,7 @@
+package no.sikt.nva.pubchannels.handler.suggest;
+
+import java.util.List;
+import no.unit.nva.commons.json.JsonSerializable;
+
+public record SuggestionsDto(String prefix, List<SuggestionDto> suggestions)
+    implements JsonSerializable {}
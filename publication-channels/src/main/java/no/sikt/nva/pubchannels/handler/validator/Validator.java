@@ -16,8 +16,8 @@ public class Validator {
   public static final String ISBN_PREFIX_PATTERN = "^(?:97(8|9)-)?[0-9]{1,5}-[0-9]{1,7}$";
   public static final int MAX_LENGTH_ISBN_PREFIX = 13;
   private static final String IS_REQUIRED_STRING = "%s is required.";
-  protected static final Year MIN_ACCEPTABLE_YEAR = Year.of(1800);
-  protected static final Year MAX_ACCEPTABLE_YEAR = Year.of(2100);
+  public static final Year MIN_ACCEPTABLE_YEAR = Year.of(1800);
+  public static final Year MAX_ACCEPTABLE_YEAR = Year.of(2100);
 
   public static void validateString(String value, int minLength, int maxLength, String name) {
     Objects.requireNonNull(value, format(IS_REQUIRED_STRING, name));
@@ -75,6 +75,16 @@ public class Validator {
     }
   }
 
+  public static void validateCursorPagination(int offset, int size, int maxSize) {
+    if (offset < 0) {
+      throw new ValidationException("Offset can not be negative");
+    }
+    if (size < 1 || size > maxSize) {
+      throw new ValidationException(
+          format("Size needs to be between 1 and %d when paging with a cursor", maxSize));
+    }
+  }
+
   public void validate(RequestObject requestObject) {
     requestObject.getYear().ifPresent(Validator::validateYear);
   }
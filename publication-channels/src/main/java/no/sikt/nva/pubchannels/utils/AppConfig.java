@@ -4,4 +4,8 @@ package no.sikt.nva.pubchannels.utils;
 public interface AppConfig {
 
   boolean shouldUseCache();
+
+  default boolean shouldUseLocalSearch() {
+    return false;
+  }
 }
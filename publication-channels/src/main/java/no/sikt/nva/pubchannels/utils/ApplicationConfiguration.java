@@ -4,6 +4,8 @@ import static java.util.Objects.isNull;
 import static nva.commons.core.attempt.Try.attempt;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import java.util.Optional;
 import java.util.concurrent.atomic.AtomicReference;
 import no.unit.nva.commons.json.JsonUtils;
 import nva.commons.core.Environment;
@@ -18,6 +20,7 @@ public class ApplicationConfiguration implements AppConfig {
 
   public static final String PUBLICATION_CHANNEL_CACHE_ENABLED_CONFIG_PARAM =
       "publicationChannelCacheEnabled";
+  public static final String LOCAL_SEARCH_ENABLED_CONFIG_PARAM = "localSearchEnabled";
   private static final Environment ENVIRONMENT = new Environment();
   private final AppConfigDataClient client;
   private static final long CACHE_DURATION_MILLIS = 60_000; // 1 minute
@@ -37,23 +40,32 @@ public class ApplicationConfiguration implements AppConfig {
 
   @Override
   public boolean shouldUseCache() {
+    return isEnabled(PUBLICATION_CHANNEL_CACHE_ENABLED_CONFIG_PARAM);
+  }
+
+  @Override
+  public boolean shouldUseLocalSearch() {
+    return isEnabled(LOCAL_SEARCH_ENABLED_CONFIG_PARAM);
+  }
+
+  private boolean isEnabled(String configParam) {
     var entry = cache.get();
     long currentTime = System.currentTimeMillis();
     if (isNull(entry) || currentTime - entry.timestamp > CACHE_DURATION_MILLIS) {
-      boolean shouldUseCache = fetchShouldUseCache();
-      cache.set(new CacheEntry(shouldUseCache, currentTime));
+      cache.set(new CacheEntry(fetchConfiguration(), currentTime));
     }
-    return cache.get().shouldUseCache;
+    return Optional.ofNullable(cache.get().configuration())
+        .map(configuration -> configuration.get(configParam))
+        .map(JsonNode::asBoolean)
+        .orElse(false);
   }
 
-  private boolean fetchShouldUseCache() {
+  private JsonNode fetchConfiguration() {
     return attempt(() -> client.getLatestConfiguration(createGetLatestConfigurationRequest()))
         .map(GetLatestConfigurationResponse::configuration)
         .map(BytesWrapper::asUtf8String)
         .map(JsonUtils.dtoObjectMapper::readTree)
-        .map(jsonNode -> jsonNode.get(PUBLICATION_CHANNEL_CACHE_ENABLED_CONFIG_PARAM))
-        .map(JsonNode::asBoolean)
-        .orElse(failure -> false);
+        .orElse(failure -> MissingNode.getInstance());
   }
 
   private String startConfigurationSession() {
@@ -71,5 +83,5 @@ public class ApplicationConfiguration implements AppConfig {
     return GetLatestConfigurationRequest.builder().configurationToken(configurationToken).build();
   }
 
-  private record CacheEntry(boolean shouldUseCache, long timestamp) {}
+  private record CacheEntry(JsonNode configuration, long timestamp) {}
 }
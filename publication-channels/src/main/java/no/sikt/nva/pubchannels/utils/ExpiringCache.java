@@ -0,0 +1,123 @@
+package no.sikt.nva.pubchannels.utils;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/** Size bounded in-memory cache, evicting the least recently used entry when full. */
+public class ExpiringCache<K, V> {
+
+  private final Duration timeToLive;
+  private final Clock clock;
+  private final Map<K, CacheEntry<V>> entries;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  public ExpiringCache(int maxSize, Duration timeToLive) {
+    this(maxSize, timeToLive, Clock.systemUTC());
+  }
+
+  public ExpiringCache(int maxSize, Duration timeToLive, Clock clock) {
+    this.timeToLive = timeToLive;
+    this.clock = clock;
+    this.entries = new LruMap<>(maxSize);
+  }
+
+  public Optional<V> get(K key) {
+    lock.lock();
+    try {
+      var entry = entries.get(key);
+      if (isNull(entry) || isExpired(entry)) {
+        entries.remove(key);
+        misses.incrementAndGet();
+        return Optional.empty();
+      }
+      hits.incrementAndGet();
+      return Optional.of(entry.value());
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Like {@link #get}, but without counting the lookup as a hit or miss. */
+  public boolean contains(K key) {
+    lock.lock();
+    try {
+      var entry = entries.get(key);
+      return nonNull(entry) && !isExpired(entry);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public void put(K key, V value) {
+    lock.lock();
+    try {
+      entries.put(key, new CacheEntry<>(value, clock.instant().plus(timeToLive)));
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public void invalidate(K key) {
+    lock.lock();
+    try {
+      entries.remove(key);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public int size() {
+    lock.lock();
+    try {
+      return entries.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public Statistics statistics() {
+    return new Statistics(hits.get(), misses.get());
+  }
+
+  private boolean isExpired(CacheEntry<V> entry) {
+    return !clock.instant().isBefore(entry.expiresAt());
+  }
+
+  public record Statistics(long hits, long misses) {
+
+    public double hitRate() {
+      var lookups = hits + misses;
+      return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+  }
+
+  private record CacheEntry<V>(V value, Instant expiresAt) {}
+
+  private static final class LruMap<K, V> extends LinkedHashMap<K, V> {
+
+    private static final long serialVersionUID = 1L;
+    private static final float LOAD_FACTOR = 0.75f;
+    private final int maxSize;
+
+    private LruMap(int maxSize) {
+      super(16, LOAD_FACTOR, true);
+      this.maxSize = maxSize;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+      return size() > maxSize;
+    }
+  }
+}
@@ -0,0 +1,53 @@
+package no.sikt.nva.pubchannels.utils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/** Lets concurrent callers asking for the same key share the result of one load. */
+public class SingleFlight<K, V> {
+
+  private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+  public <E extends Exception> V execute(K key, Loader<V, E> loader) throws E {
+    var future = new CompletableFuture<V>();
+    var existing = inFlight.putIfAbsent(key, future);
+    if (existing != null) {
+      return SingleFlight.<V, E>awaitResult(existing);
+    }
+    try {
+      var value = loader.load();
+      future.complete(value);
+      return value;
+    } catch (Exception e) {
+      future.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(key, future);
+      future.cancel(false);
+    }
+  }
+
+  public int inFlightCount() {
+    return inFlight.size();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <V, E extends Exception> V awaitResult(CompletableFuture<V> future) throws E {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw (E) e.getCause();
+    }
+  }
+
+  @FunctionalInterface
+  public interface Loader<V, E extends Exception> {
+
+    V load() throws E;
+  }
+}
@@ -3,12 +3,14 @@ package no.sikt.nva.pubchannels.channelregistry;
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
 import static com.github.tomakehurst.wiremock.client.WireMock.delete;
 import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.patch;
 import static com.github.tomakehurst.wiremock.client.WireMock.post;
 import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
 import static java.net.HttpURLConnection.HTTP_BAD_GATEWAY;
 import static java.net.HttpURLConnection.HTTP_BAD_REQUEST;
+import static java.net.HttpURLConnection.HTTP_INTERNAL_ERROR;
 import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
 import static java.net.HttpURLConnection.HTTP_NO_CONTENT;
 import static java.net.HttpURLConnection.HTTP_OK;
@@ -24,26 +26,34 @@ import static no.unit.nva.testutils.RandomDataGenerator.randomUri;
 import static nva.commons.core.StringUtils.EMPTY_STRING;
 import static nva.commons.core.attempt.Try.attempt;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeout;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
 import com.github.tomakehurst.wiremock.client.WireMock;
 import com.github.tomakehurst.wiremock.junit5.WireMockRuntimeInfo;
 import com.github.tomakehurst.wiremock.junit5.WireMockTest;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpTimeoutException;
+import java.time.Clock;
+import java.time.Duration;
 import java.time.Year;
 import java.util.Map;
+import java.util.concurrent.CompletionException;
 import no.sikt.nva.pubchannels.HttpHeaders;
 import no.sikt.nva.pubchannels.channelregistry.ChannelRegistryUpdateChannelRequest.Fields;
 import no.sikt.nva.pubchannels.channelregistry.model.ChannelRegistryLevel;
 import no.sikt.nva.pubchannels.channelregistry.model.ChannelRegistryPublisher;
 import no.sikt.nva.pubchannels.dataporten.DataportenAuthClient;
 import no.sikt.nva.pubchannels.dataporten.model.TokenBodyResponse;
+import no.sikt.nva.pubchannels.handler.fetch.RequestObject;
 import no.unit.nva.commons.json.JsonUtils;
 import no.unit.nva.stubs.WiremockHttpClient;
 import nva.commons.apigateway.exceptions.BadGatewayException;
@@ -57,10 +67,11 @@ import org.junit.jupiter.api.Test;
 class ChannelRegistryClientTest {
 
   private ChannelRegistryClient client;
+  private URI channelRegistryBaseUri;
 
   @BeforeEach
   void setUp(WireMockRuntimeInfo runtimeInfo) {
-    var channelRegistryBaseUri = URI.create(runtimeInfo.getHttpsBaseUrl());
+    channelRegistryBaseUri = URI.create(runtimeInfo.getHttpsBaseUrl());
     var httpClient = WiremockHttpClient.create();
     var dataportenBaseUri = URI.create(runtimeInfo.getHttpsBaseUrl());
     var authClient = new DataportenAuthClient(httpClient, dataportenBaseUri, "", "");
@@ -79,6 +90,127 @@ class ChannelRegistryClientTest {
     assertThrows(UnauthorizedException.class, () -> client.updateChannel(request));
   }
 
+  @Test
+  void shouldStopCallingChannelRegistryWhenCircuitIsOpen() {
+    var circuitBreaker =
+        new CircuitBreaker(
+            2, 0.5, Duration.ofSeconds(5), Duration.ofSeconds(30), Clock.systemUTC());
+    var guardedClient =
+        new ChannelRegistryClient(
+            WiremockHttpClient.create(), channelRegistryBaseUri, null, circuitBreaker);
+    var channelIdentifier = randomPublicationChannelIdentifier();
+    var requestObject =
+        new RequestObject(ChannelType.PUBLISHER, channelIdentifier, Year.now().toString());
+    stubFetchChannelResponse(channelIdentifier, HTTP_INTERNAL_ERROR, EMPTY_STRING, "findpublisher");
+
+    for (var i = 0; i < 3; i++) {
+      assertThrows(BadGatewayException.class, () -> guardedClient.getChannel(requestObject));
+    }
+
+    WireMock.verify(
+        2,
+        getRequestedFor(
+            urlPathEqualTo(
+                "/findpublisher/%s/%s".formatted(channelIdentifier, Year.now().toString()))));
+  }
+
+  @Test
+  void shouldReadChannelForUpdateWhenCircuitIsOpen() {
+    var circuitBreaker =
+        new CircuitBreaker(
+            1, 0.5, Duration.ofSeconds(5), Duration.ofSeconds(30), Clock.systemUTC());
+    var dataportenClient =
+        new DataportenAuthClient(WiremockHttpClient.create(), channelRegistryBaseUri, "", "");
+    var guardedClient =
+        new ChannelRegistryClient(
+            WiremockHttpClient.create(), channelRegistryBaseUri, dataportenClient, circuitBreaker);
+    var failingIdentifier = randomPublicationChannelIdentifier();
+    stubFetchChannelResponse(failingIdentifier, HTTP_INTERNAL_ERROR, EMPTY_STRING, "findpublisher");
+    assertThrows(
+        BadGatewayException.class,
+        () ->
+            guardedClient.getChannel(
+                new RequestObject(
+                    ChannelType.PUBLISHER, failingIdentifier, Year.now().toString())));
+    var channelIdentifier = randomPublicationChannelIdentifier();
+    stubTokenResponse(HTTP_OK);
+    stubFetchChannelResponse(
+        channelIdentifier, HTTP_OK, channelWithScientValue(null), "findpublisher");
+    stubUpdateChannelResponse(HTTP_NO_CONTENT);
+
+    assertDoesNotThrow(
+        () -> guardedClient.updateChannel(createRequest(channelIdentifier, "publisher")));
+    WireMock.verify(
+        1,
+        getRequestedFor(
+            urlPathEqualTo(
+                "/findpublisher/%s/%s".formatted(channelIdentifier, Year.now().toString()))));
+  }
+
+  @Test
+  void shouldUseHedgedResponseWhenFirstRequestIsSlow() {
+    var hedgingPolicy = new HedgingPolicy(10, 0, 0.95, Duration.ofMillis(100), 1.0);
+    var hedgingClient =
+        new ChannelRegistryClient(
+            WiremockHttpClient.create(),
+            channelRegistryBaseUri,
+            null,
+            CircuitBreaker.defaultInstance(),
+            hedgingPolicy);
+    var channelIdentifier = randomPublicationChannelIdentifier();
+    var path = "/findpublisher/%s/%s".formatted(channelIdentifier, Year.now().toString());
+    var body = channelWithScientValue(null);
+    stubFor(
+        get(urlPathEqualTo(path))
+            .inScenario("hedging")
+            .whenScenarioStateIs(Scenario.STARTED)
+            .willReturn(okPublisherResponse(body).withFixedDelay(5_000))
+            .willSetStateTo("hedged"));
+    stubFor(
+        get(urlPathEqualTo(path))
+            .inScenario("hedging")
+            .whenScenarioStateIs("hedged")
+            .willReturn(okPublisherResponse(body)));
+    var requestObject =
+        new RequestObject(ChannelType.PUBLISHER, channelIdentifier, Year.now().toString());
+
+    assertTimeout(Duration.ofSeconds(3), () -> hedgingClient.getChannel(requestObject));
+    WireMock.verify(2, getRequestedFor(urlPathEqualTo(path)));
+  }
+
+  @Test
+  void shouldFetchChannelAsynchronously() {
+    var channelIdentifier = randomPublicationChannelIdentifier();
+    stubFetchChannelResponse(
+        channelIdentifier, HTTP_OK, channelWithScientValue(null), "findpublisher");
+    var requestObject =
+        new RequestObject(ChannelType.PUBLISHER, channelIdentifier, Year.now().toString());
+
+    var channel = client.getChannelAsync(requestObject).join();
+
+    assertInstanceOf(ChannelRegistryPublisher.class, channel);
+  }
+
+  @Test
+  void shouldCompleteAsynchronousFetchWithNotFoundWhenChannelDoesNotExist() {
+    var channelIdentifier = randomPublicationChannelIdentifier();
+    stubFetchChannelResponse(channelIdentifier, HTTP_NOT_FOUND, EMPTY_STRING, "findpublisher");
+    var requestObject =
+        new RequestObject(ChannelType.PUBLISHER, channelIdentifier, Year.now().toString());
+
+    var future = client.getChannelAsync(requestObject);
+
+    var exception = assertThrows(CompletionException.class, future::join);
+    assertInstanceOf(NotFoundException.class, exception.getCause());
+  }
+
+  private static ResponseDefinitionBuilder okPublisherResponse(String body) {
+    return aResponse()
+        .withStatus(HTTP_OK)
+        .withHeader(CONTENT_TYPE, CONTENT_TYPE_APPLICATION_JSON_UTF8)
+        .withBody(body);
+  }
+
   private static String randomPublicationChannelIdentifier() {
     return randomUUID().toString().toUpperCase();
   }
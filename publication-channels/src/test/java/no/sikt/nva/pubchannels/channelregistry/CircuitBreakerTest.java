@@ -0,0 +1,81 @@
+package no.sikt.nva.pubchannels.channelregistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+import no.sikt.nva.pubchannels.channelregistry.CircuitBreaker.State;
+import no.sikt.nva.pubchannels.utils.MutableClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CircuitBreakerTest {
+
+  private static final int WINDOW_SIZE = 4;
+  private static final Duration SLOW_CALL_THRESHOLD = Duration.ofSeconds(5);
+  private static final Duration OPEN_DURATION = Duration.ofSeconds(30);
+  private static final Duration FAST_CALL = Duration.ofMillis(50);
+  private MutableClock clock;
+  private CircuitBreaker circuitBreaker;
+
+  @BeforeEach
+  void setUp() {
+    clock = new MutableClock(Instant.parse("2025-01-01T12:00:00Z"));
+    circuitBreaker =
+        new CircuitBreaker(WINDOW_SIZE, 0.5, SLOW_CALL_THRESHOLD, OPEN_DURATION, clock);
+  }
+
+  @Test
+  void shouldStayClosedWhenFailureRateIsBelowThreshold() {
+    circuitBreaker.recordFailure();
+    circuitBreaker.recordSuccess(FAST_CALL);
+    circuitBreaker.recordSuccess(FAST_CALL);
+    circuitBreaker.recordSuccess(FAST_CALL);
+
+    assertEquals(State.CLOSED, circuitBreaker.getState());
+    assertTrue(circuitBreaker.tryAcquirePermission());
+  }
+
+  @Test
+  void shouldOpenAndRejectCallsWhenFailureRateReachesThreshold() {
+    circuitBreaker.recordFailure();
+    circuitBreaker.recordSuccess(SLOW_CALL_THRESHOLD);
+    circuitBreaker.recordSuccess(FAST_CALL);
+    circuitBreaker.recordSuccess(FAST_CALL);
+
+    assertEquals(State.OPEN, circuitBreaker.getState());
+    assertFalse(circuitBreaker.tryAcquirePermission());
+  }
+
+  @Test
+  void shouldLetSingleProbeThroughAndCloseWhenProbeSucceeds() {
+    openCircuit();
+    clock.advance(OPEN_DURATION);
+
+    assertTrue(circuitBreaker.tryAcquirePermission());
+    assertFalse(circuitBreaker.tryAcquirePermission());
+    circuitBreaker.recordSuccess(FAST_CALL);
+
+    assertEquals(State.CLOSED, circuitBreaker.getState());
+  }
+
+  @Test
+  void shouldOpenAgainWhenProbeFails() {
+    openCircuit();
+    clock.advance(OPEN_DURATION);
+
+    circuitBreaker.tryAcquirePermission();
+    circuitBreaker.recordFailure();
+
+    assertEquals(State.OPEN, circuitBreaker.getState());
+    assertFalse(circuitBreaker.tryAcquirePermission());
+  }
+
+  private void openCircuit() {
+    for (var i = 0; i < WINDOW_SIZE; i++) {
+      circuitBreaker.recordFailure();
+    }
+  }
+}
@@ -0,0 +1,58 @@
+package no.sikt.nva.pubchannels.channelregistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+
+class HedgingPolicyTest {
+
+  private static final Duration MINIMUM_DELAY = Duration.ofMillis(10);
+
+  @Test
+  void shouldNotHedgeBeforeEnoughLatenciesAreRecorded() {
+    var policy = new HedgingPolicy(10, 5, 0.9, MINIMUM_DELAY, 1.0);
+
+    recordLatencies(policy, 4);
+
+    assertEquals(Optional.empty(), policy.startRequest());
+  }
+
+  @Test
+  void shouldUsePercentileOfRecordedLatenciesAsDelay() {
+    var policy = new HedgingPolicy(10, 5, 0.9, MINIMUM_DELAY, 1.0);
+
+    recordLatencies(policy, 10);
+
+    assertEquals(Optional.of(Duration.ofMillis(90)), policy.startRequest());
+  }
+
+  @Test
+  void shouldNotHedgeMoreThanBudgetAllows() {
+    var policy = new HedgingPolicy(10, 0, 0.9, MINIMUM_DELAY, 0.5);
+
+    policy.startRequest();
+    assertFalse(policy.tryAcquireHedge());
+    policy.startRequest();
+    assertTrue(policy.tryAcquireHedge());
+    assertFalse(policy.tryAcquireHedge());
+  }
+
+  @Test
+  void shouldNeverHedgeWhenDisabled() {
+    var policy = HedgingPolicy.disabled();
+
+    recordLatencies(policy, 10);
+
+    assertEquals(Optional.empty(), policy.startRequest());
+  }
+
+  private static void recordLatencies(HedgingPolicy policy, int count) {
+    for (var i = 1; i <= count; i++) {
+      policy.recordLatency(Duration.ofMillis(i * 10L));
+    }
+  }
+}
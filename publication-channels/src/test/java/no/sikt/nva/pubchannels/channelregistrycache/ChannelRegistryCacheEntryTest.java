@@ -1,34 +1,115 @@
 package no.sikt.nva.pubchannels.channelregistrycache;
 
+import static no.unit.nva.testutils.RandomDataGenerator.randomUri;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
-import com.opencsv.bean.CsvToBeanBuilder;
-import com.opencsv.enums.CSVReaderNullFieldIndicator;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
+import com.opencsv.exceptions.CsvException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.UUID;
+import no.sikt.nva.pubchannels.channelregistry.model.ChannelRegistrySerialPublication;
 import org.junit.jupiter.api.Test;
 
 class ChannelRegistryCacheEntryTest {
 
   public static final String TEST_CSV = "src/test/resources/cache.csv";
+  private static final String JOURNAL_FROM_CSV = "50561B90-6679-4FCD-BCB0-99E521B18962";
 
   @Test
-  void shouldParseCsvToListOfBeans() throws FileNotFoundException {
+  void shouldParseCsvToListOfBeans() throws IOException, CsvException {
     var beans = getChannelRegistryCacheEntries();
 
     assertTrue(beans.stream().allMatch(Objects::nonNull));
   }
 
+  @Test
+  void shouldLookUpLevelOfRequestedYear() {
+    var entry =
+        ChannelRegistryCacheEntry.builder()
+            .withPid(UUID.randomUUID())
+            .withLevelHistory(
+                List.of(
+                    new LevelForYear("2024", "2"),
+                    new LevelForYear("2021", "1"),
+                    new LevelForYear("2020", "0")))
+            .withUri(randomUri().toString())
+            .build();
+
+    assertEquals("2", levelOf(entry, "2024"));
+    assertEquals("0", levelOf(entry, "2020"));
+    assertNull(levelOf(entry, "2022"));
+    assertNull(levelOf(entry, "2019"));
+    assertNull(levelOf(entry, "2025"));
+  }
+
+  @Test
+  void shouldLookUpLevelOfRequestedYearWhenReadFromCsv() throws IOException, CsvException {
+    var entry =
+        getChannelRegistryCacheEntries().stream()
+            .filter(bean -> JOURNAL_FROM_CSV.equals(bean.getPidAsString()))
+            .findFirst()
+            .orElseThrow();
+
+    assertEquals("1", levelOf(entry, "2024"));
+    assertEquals(new LevelForYear("2024", "1"), entry.getLevelHistory().getFirst());
+  }
+
+  @Test
+  void shouldIgnoreLevelsOfYearsOutsideAcceptedRange() {
+    var entry =
+        entryWithLevelHistory(
+            List.of(
+                new LevelForYear("2024", "2"),
+                new LevelForYear("99999", "1"),
+                new LevelForYear("-5", "1")));
+
+    assertEquals("2", levelOf(entry, "2024"));
+    assertNull(levelOf(entry, "2100"));
+    assertNull(levelOf(entry, "1800"));
+  }
+
+  @Test
+  void shouldKeepLevelHistoryAsGiven() {
+    var levelHistory =
+        List.of(
+            new LevelForYear("2020", "1"),
+            new LevelForYear("2024", "2"),
+            new LevelForYear("2024", "1"),
+            new LevelForYear("not a year", "0"));
+
+    assertEquals(levelHistory, entryWithLevelHistory(levelHistory).getLevelHistory());
+  }
+
+  private static ChannelRegistryCacheEntry entryWithLevelHistory(List<LevelForYear> levelHistory) {
+    return ChannelRegistryCacheEntry.builder()
+        .withPid(UUID.randomUUID())
+        .withLevelHistory(levelHistory)
+        .withUri(randomUri().toString())
+        .build();
+  }
+
+  private static String levelOf(ChannelRegistryCacheEntry entry, String year) {
+    var channel = (ChannelRegistrySerialPublication) entry.toThirdPartySerialPublication(year);
+    return channel.channelRegistryLevel().level();
+  }
+
   private static List<ChannelRegistryCacheEntry> getChannelRegistryCacheEntries()
-      throws FileNotFoundException {
-    return new CsvToBeanBuilder<ChannelRegistryCacheEntry>(new FileReader(TEST_CSV))
-        .withType(ChannelRegistryCacheEntry.class)
-        .withSeparator(';')
-        .withIgnoreEmptyLine(true)
-        .withFieldAsNull(CSVReaderNullFieldIndicator.BOTH)
-        .build()
-        .parse();
+      throws IOException, CsvException {
+    var lines = Files.readAllLines(Path.of(TEST_CSV));
+    var rowMapper = ChannelRegistryCsvRowMapper.fromHeader(lines.getFirst());
+    var entries = new ArrayList<ChannelRegistryCacheEntry>();
+    for (var lineNumber = 1; lineNumber < lines.size(); lineNumber++) {
+      var line = lines.get(lineNumber);
+      if (!line.isBlank()) {
+        entries.add(rowMapper.map(lineNumber, line));
+      }
+    }
+    return entries;
   }
 }
@@ -1,23 +1,38 @@
 package no.sikt.nva.pubchannels.channelregistrycache;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static nva.commons.core.attempt.Try.attempt;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.core.StringContains.containsString;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
 import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 import no.unit.nva.s3.S3Driver;
 import no.unit.nva.stubs.FakeS3Client;
 import nva.commons.core.ioutils.IoUtils;
 import nva.commons.core.paths.UnixPath;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
 
 class ChannelRegistryCsvLoaderTest {
 
   private static final String EMPTY_STRING = "";
+  private static final String PID = "50561B90-6679-4FCD-BCB0-99E521B18962";
   private ChannelRegistryCsvLoader csvLoader;
   private S3Driver s3Driver;
 
@@ -65,6 +80,81 @@ class ChannelRegistryCsvLoaderTest {
     assertThat(result.report().get(), containsString("No data"));
   }
 
+  @Test
+  void shouldMapColumnsByHeaderNameRegardlessOfColumnOrder() {
+    insertCsv(
+        """
+        KURL;Nivåhistorikk;Original tittel;PID;type
+        "https://example.org";"{"year":2024,"level":"2"}";"Some title";"%s";"Tidsskrift"
+        """
+            .formatted(PID));
+    var result = csvLoader.getEntries();
+    var entry = result.entries().toList().getFirst();
+
+    assertThat(entry.getPidAsString(), is(equalTo(PID)));
+    assertThat(entry.getOriginalTitle(), is(equalTo("Some title")));
+    assertThat(entry.getLevelHistory(), is(equalTo(List.of(new LevelForYear("2024", "2")))));
+  }
+
+  @Test
+  void shouldReportLineWithInvalidIdentifier() {
+    insertCsv(
+        """
+        PID;type;Original tittel
+        "not-a-uuid";"Tidsskrift";"Some title"
+        """);
+    var result = csvLoader.getEntries();
+    var cacheEntries = result.entries().toList();
+
+    assertThat(cacheEntries.size(), is(equalTo(0)));
+    assertThat(result.report().get(), containsString("Failed to parse 1 out of 1 CSV lines"));
+  }
+
+  @Test
+  void shouldReportLineWithWrongNumberOfFields() {
+    insertCsv(
+        """
+        PID;type;Original tittel
+        "50561B90-6679-4FCD-BCB0-99E521B18962";"Tidsskrift";"Some title"
+        "not-a-uuid";"Tidsskrift"
+        """);
+    var result = csvLoader.getEntries();
+    var cacheEntries = result.entries().toList();
+
+    assertThat(cacheEntries.size(), is(equalTo(1)));
+    assertThat(
+        result.report().get(),
+        containsString("Line 2: CsvException: Line 2 has 2 fields, but the header has 3 columns"));
+  }
+
+  @Test
+  void shouldCloseObjectStreamWhenHeaderCannotBeParsed() {
+    var closed = new AtomicBoolean();
+    var content =
+        new ByteArrayInputStream("\"PID;type\n".getBytes(UTF_8)) {
+          @Override
+          public void close() {
+            closed.set(true);
+          }
+        };
+    var s3Client = mock(S3Client.class);
+    when(s3Client.getObject(any(GetObjectRequest.class)))
+        .thenReturn(
+            new ResponseInputStream<>(
+                GetObjectResponse.builder().build(), AbortableInputStream.create(content)));
+
+    assertThrows(RuntimeException.class, () -> new ChannelRegistryCsvLoader(s3Client).getEntries());
+    assertTrue(closed.get());
+  }
+
+  private void insertCsv(String csv) {
+    attempt(
+            () ->
+                s3Driver.insertFile(
+                    UnixPath.of(ChannelRegistryCacheConfig.CHANNEL_REGISTER_CACHE_S3_OBJECT), csv))
+        .orElseThrow();
+  }
+
   private void loadCsv(String csvFile) {
     var csv = IoUtils.stringFromResources(Path.of(csvFile));
     attempt(
@@ -0,0 +1,132 @@
+package no.sikt.nva.pubchannels.channelregistrycache.db.service;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import nva.commons.logutils.LogUtils;
+import org.junit.jupiter.api.Test;
+
+@SuppressWarnings("PMD.DoNotUseThreads")
+class BatchWritePipelineTest {
+
+  private static final Duration CLOSE_TIMEOUT = Duration.ofSeconds(5);
+
+  @Test
+  void shouldWriteAllItemsAndStopEveryWriterOnClose() {
+    var batches = Collections.synchronizedList(new ArrayList<List<Integer>>());
+    var pipeline = new BatchWritePipeline<Integer>(4, 2, batches::add);
+    IntStream.range(0, 9).forEach(pipeline::add);
+
+    assertTimeoutPreemptively(CLOSE_TIMEOUT, pipeline::close);
+
+    assertThat(
+        batches.stream().flatMap(List::stream).toList(),
+        containsInAnyOrder(0, 1, 2, 3, 4, 5, 6, 7, 8));
+    assertThat(batches.stream().map(List::size).toList(), containsInAnyOrder(2, 2, 2, 2, 1));
+  }
+
+  @Test
+  void shouldLogFailedBatchAndKeepWritingTheRest() {
+    var appender = LogUtils.getTestingAppenderForRootLogger();
+    var written = Collections.synchronizedList(new ArrayList<Integer>());
+    var pipeline =
+        new BatchWritePipeline<Integer>(
+            1,
+            2,
+            batch -> {
+              if (batch.contains(0)) {
+                throw new IllegalStateException("Write failed");
+              }
+              written.addAll(batch);
+            });
+    IntStream.range(0, 6).forEach(pipeline::add);
+
+    assertTimeoutPreemptively(CLOSE_TIMEOUT, pipeline::close);
+
+    assertThat(written, containsInAnyOrder(2, 3, 4, 5));
+    assertThat(appender.getMessages(), containsString("Failed to write batch of 2 items"));
+  }
+
+  @Test
+  void shouldBlockProducerWhileQueueOfBatchesIsFull() throws InterruptedException {
+    var writing = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+    var added = new AtomicInteger();
+    var written = Collections.synchronizedList(new ArrayList<Integer>());
+    var pipeline =
+        new BatchWritePipeline<Integer>(
+            1,
+            1,
+            batch -> {
+              writing.countDown();
+              await(release);
+              written.addAll(batch);
+            });
+    var producer =
+        new Thread(
+            () ->
+                IntStream.range(0, 5)
+                    .forEach(
+                        item -> {
+                          pipeline.add(item);
+                          added.incrementAndGet();
+                        }));
+    producer.start();
+
+    assertTrue(writing.await(CLOSE_TIMEOUT.toSeconds(), SECONDS));
+    producer.join(Duration.ofMillis(500));
+
+    // One batch is held by the blocked writer and two more fill the queue
+    assertTrue(producer.isAlive());
+    assertThat(added.get(), is(equalTo(3)));
+
+    release.countDown();
+    producer.join();
+    assertTimeoutPreemptively(CLOSE_TIMEOUT, pipeline::close);
+    assertThat(written, containsInAnyOrder(0, 1, 2, 3, 4));
+  }
+
+  @Test
+  void shouldFailProducerInsteadOfBlockingWhenWriterStopsWithError() {
+    var pipeline =
+        new BatchWritePipeline<Integer>(
+            1,
+            1,
+            batch -> {
+              throw new StackOverflowError("Mapping failed");
+            });
+
+    assertTimeoutPreemptively(
+        CLOSE_TIMEOUT,
+        () ->
+            assertThrows(
+                IllegalStateException.class,
+                () -> {
+                  IntStream.range(0, 10).forEach(pipeline::add);
+                  pipeline.close();
+                }));
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+}
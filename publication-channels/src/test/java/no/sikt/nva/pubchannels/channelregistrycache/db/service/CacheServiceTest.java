@@ -7,24 +7,48 @@ import static no.unit.nva.testutils.RandomDataGenerator.randomUri;
 import static nva.commons.core.attempt.Try.attempt;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.when;
 
 import java.net.URI;
 import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
 import no.sikt.nva.pubchannels.channelregistry.ChannelType;
 import no.sikt.nva.pubchannels.channelregistry.model.ChannelRegistryLevel;
 import no.sikt.nva.pubchannels.channelregistry.model.ChannelRegistryPublisher;
 import no.sikt.nva.pubchannels.channelregistry.model.ChannelRegistrySerialPublication;
 import no.sikt.nva.pubchannels.channelregistrycache.ChannelRegistryCacheConfig;
 import no.sikt.nva.pubchannels.channelregistrycache.ChannelRegistryCacheEntry;
+import no.sikt.nva.pubchannels.channelregistrycache.db.model.ChannelRedirectDao;
+import no.sikt.nva.pubchannels.channelregistrycache.db.model.ChannelRegistryCacheDao;
 import no.sikt.nva.pubchannels.handler.fetch.RequestObject;
 import no.unit.nva.s3.S3Driver;
 import no.unit.nva.stubs.FakeS3Client;
 import nva.commons.apigateway.exceptions.ApiGatewayException;
+import nva.commons.core.Environment;
 import nva.commons.core.ioutils.IoUtils;
 import nva.commons.core.paths.UnixPath;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.MappedTableResource;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchGetItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchGetResultPage;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchGetResultPageIterable;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteResult;
 
 class CacheServiceTest extends CacheServiceTestSetup {
 
@@ -57,6 +81,50 @@ class CacheServiceTest extends CacheServiceTestSetup {
         channel.toThirdPartyPublicationChannel(ChannelType.JOURNAL, year), persistedChannel);
   }
 
+  @Test
+  void shouldStoreRedirectNextToCacheEntryOfMovedChannel() throws ApiGatewayException {
+    var channel =
+        ChannelRegistryCacheEntry.builder()
+            .withPid(UUID.randomUUID())
+            .withIsbn(randomString())
+            .withUri(randomUri().toString())
+            .build();
+    var newIdentifier = UUID.randomUUID().toString().toUpperCase();
+    cacheService.save(channel);
+
+    cacheService.saveRedirect(channel.getPid().toString(), newIdentifier);
+
+    assertEquals(Optional.of(newIdentifier), cacheService.getRedirect(channel.getPid().toString()));
+    assertNotNull(
+        cacheService.getChannel(
+            new RequestObject(ChannelType.JOURNAL, channel.getPid().toString(), randomYear())));
+  }
+
+  @Test
+  void shouldStoreRedirectWithExpiry() {
+    var identifier = UUID.randomUUID();
+
+    cacheService.saveRedirect(identifier.toString(), UUID.randomUUID().toString());
+
+    var redirect =
+        redirectTable().getItem(ChannelRedirectDao.builder().identifier(identifier).build());
+    assertTrue(redirect.expiresAt() > Instant.now().getEpochSecond());
+  }
+
+  @Test
+  void shouldIgnoreExpiredRedirectThatIsNotYetDeleted() {
+    var identifier = UUID.randomUUID();
+    redirectTable()
+        .putItem(
+            ChannelRedirectDao.builder()
+                .identifier(identifier)
+                .redirectTo(UUID.randomUUID())
+                .expiresAt(Instant.now().minusSeconds(60).getEpochSecond())
+                .build());
+
+    assertEquals(Optional.empty(), cacheService.getRedirect(identifier.toString()));
+  }
+
   @Test
   void shouldLoadCsvEntriesToDatabase() throws ApiGatewayException {
     var s3Client = s3ClientWithCsvFileInCacheBucket();
@@ -69,6 +137,43 @@ class CacheServiceTest extends CacheServiceTestSetup {
     assertNotNull(loadedEntry);
   }
 
+  @Test
+  void shouldFindLoadedChannelByEitherIssn() {
+    cacheService.loadCache(s3ClientWithCsvFileInCacheBucket());
+    var expectedPid = UUID.fromString("50561B90-6679-4FCD-BCB0-99E521B18962");
+
+    var byPrintIssn = cacheService.findByIssn("0029-2001");
+    var byOnlineIssn = cacheService.findByIssn("0807-7096");
+
+    assertEquals(List.of(expectedPid), pidsOf(byPrintIssn));
+    assertEquals(List.of(expectedPid), pidsOf(byOnlineIssn));
+  }
+
+  @Test
+  void shouldFindNothingForUnknownIssn() {
+    cacheService.loadCache(s3ClientWithCsvFileInCacheBucket());
+
+    assertEquals(List.of(), cacheService.findByIssn("1234-5679"));
+  }
+
+  @Test
+  void shouldFindChannelOnceWhenPrintAndOnlineIssnAreTheSame() {
+    var entry = channelWithIssns("1234-5679", "12345679");
+    cacheService.save(entry);
+
+    assertEquals(List.of(entry.getPid()), pidsOf(cacheService.findByIssn("1234-5679")));
+  }
+
+  @Test
+  void shouldNotFindChannelByIssnItNoLongerHas() {
+    var pid = UUID.randomUUID();
+    cacheService.save(channelWithIssns(pid, "1234-5679", null));
+    cacheService.save(channelWithIssns(pid, "0029-2001", null));
+
+    assertEquals(List.of(), cacheService.findByIssn("1234-5679"));
+    assertEquals(List.of(pid), pidsOf(cacheService.findByIssn("0029-2001")));
+  }
+
   @Test
   void shouldLoadCachedPublicationChannelWhenJournal() throws ApiGatewayException {
     var s3Client = s3ClientWithCsvFileInCacheBucket();
@@ -111,6 +216,118 @@ class CacheServiceTest extends CacheServiceTestSetup {
     assertEquals(expectedJournal, journal);
   }
 
+  @Test
+  void shouldResubmitUnprocessedItemsWhenBatchWriteIsThrottled() throws ApiGatewayException {
+    var unprocessedEntry =
+        ChannelRegistryCacheEntry.builder()
+            .withPid(UUID.randomUUID())
+            .withType("Tidsskrift")
+            .withUri(randomUri().toString())
+            .build();
+    var client = spy(super.getClient());
+    var isFirstChannelWrite = new AtomicBoolean(true);
+    doAnswer(
+            invocation -> {
+              var result = (BatchWriteResult) invocation.callRealMethod();
+              var throttledResult = mock(BatchWriteResult.class);
+              when(throttledResult.unprocessedPutItemsForTable(any()))
+                  .thenAnswer(
+                      call ->
+                          isChannelTable(call.getArgument(0))
+                                  && isFirstChannelWrite.getAndSet(false)
+                              ? List.of(unprocessedEntry.toDao())
+                              : result.unprocessedPutItemsForTable(call.getArgument(0)));
+              return throttledResult;
+            })
+        .when(client)
+        .batchWriteItem(any(BatchWriteItemEnhancedRequest.class));
+
+    new CacheService(client).loadCache(s3ClientWithCsvFileInCacheBucket());
+
+    var requestObject =
+        new RequestObject(ChannelType.JOURNAL, unprocessedEntry.getPidAsString(), randomYear());
+    assertNotNull(cacheService.getChannel(requestObject));
+  }
+
+  @Test
+  void shouldReadChannelsInBatchesAndReportMissingKeys() {
+    var requestObjects = new ArrayList<RequestObject>();
+    for (var i = 0; i < 150; i++) {
+      var entry = randomCacheEntry();
+      cacheService.save(entry);
+      requestObjects.add(
+          new RequestObject(ChannelType.JOURNAL, entry.getPidAsString(), randomYear()));
+    }
+    var unknown =
+        new RequestObject(ChannelType.JOURNAL, UUID.randomUUID().toString(), randomYear());
+    requestObjects.add(unknown);
+
+    var result = cacheService.getChannels(requestObjects);
+
+    assertEquals(150, result.found().size());
+    assertEquals(Set.of(unknown), result.missing());
+  }
+
+  @Test
+  void shouldRetryUnprocessedKeysWhenBatchReadIsThrottled() {
+    var entry = randomCacheEntry();
+    cacheService.save(entry);
+    var throttledPage = mock(BatchGetResultPage.class);
+    when(throttledPage.resultsForTable(any())).thenReturn(List.of());
+    when(throttledPage.unprocessedKeysForTable(any()))
+        .thenReturn(List.of(Key.builder().partitionValue(entry.getPidAsString()).build()));
+    var throttledResult = mock(BatchGetResultPageIterable.class);
+    when(throttledResult.iterator()).thenReturn(List.of(throttledPage).iterator());
+    var client = spy(super.getClient());
+    var isFirstRead = new AtomicBoolean(true);
+    doAnswer(
+            invocation ->
+                isFirstRead.getAndSet(false) ? throttledResult : invocation.callRealMethod())
+        .when(client)
+        .batchGetItem(any(BatchGetItemEnhancedRequest.class));
+    var requestObject =
+        new RequestObject(ChannelType.JOURNAL, entry.getPidAsString(), randomYear());
+
+    var result = new CacheService(client).getChannels(List.of(requestObject));
+
+    assertNotNull(result.found().get(requestObject));
+    assertEquals(Set.of(), result.missing());
+  }
+
+  private DynamoDbTable<ChannelRedirectDao> redirectTable() {
+    return super.getClient()
+        .table(
+            new Environment().readEnv("TABLE_NAME"),
+            TableSchema.fromImmutableClass(ChannelRedirectDao.class));
+  }
+
+  private static boolean isChannelTable(MappedTableResource<?> table) {
+    return ChannelRegistryCacheDao.class.equals(table.tableSchema().itemType().rawClass());
+  }
+
+  private static ChannelRegistryCacheEntry channelWithIssns(String printIssn, String onlineIssn) {
+    return channelWithIssns(UUID.randomUUID(), printIssn, onlineIssn);
+  }
+
+  private static ChannelRegistryCacheEntry channelWithIssns(
+      UUID pid, String printIssn, String onlineIssn) {
+    return ChannelRegistryCacheEntry.builder()
+        .withPid(pid)
+        .withType("Tidsskrift")
+        .withPrintIssn(printIssn)
+        .withOnlineIssn(onlineIssn)
+        .withUri(randomUri().toString())
+        .build();
+  }
+
+  private static ChannelRegistryCacheEntry randomCacheEntry() {
+    return ChannelRegistryCacheEntry.builder()
+        .withPid(UUID.randomUUID())
+        .withType("Tidsskrift")
+        .withUri(randomUri().toString())
+        .build();
+  }
+
   private static ChannelRegistrySerialPublication createExpectedJournal(
       String channelIdentifier, String year) {
     return new ChannelRegistrySerialPublication(
@@ -168,4 +385,8 @@ class CacheServiceTest extends CacheServiceTestSetup {
         null,
         "publisher");
   }
+
+  private static List<UUID> pidsOf(List<ChannelRegistryCacheEntry> entries) {
+    return entries.stream().map(ChannelRegistryCacheEntry::getPid).toList();
+  }
 }
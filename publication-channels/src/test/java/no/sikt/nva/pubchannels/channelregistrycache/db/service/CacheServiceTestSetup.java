@@ -1,5 +1,7 @@
 package no.sikt.nva.pubchannels.channelregistrycache.db.service;
 
+import static no.sikt.nva.pubchannels.channelregistrycache.db.model.ChannelIssnDao.ISSN_INDEX;
+import static no.sikt.nva.pubchannels.channelregistrycache.db.model.ChannelIssnDao.ISSN_INDEX_KEY;
 import static no.sikt.nva.pubchannels.channelregistrycache.db.model.ChannelRegistryCacheDao.PRIMARY_KEY;
 import static no.sikt.nva.pubchannels.channelregistrycache.db.model.ChannelRegistryCacheDao.SORT_KEY;
 import static nva.commons.core.attempt.Try.attempt;
@@ -17,8 +19,11 @@ import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.AttributeDefinition;
 import software.amazon.awssdk.services.dynamodb.model.CreateTableRequest;
+import software.amazon.awssdk.services.dynamodb.model.GlobalSecondaryIndex;
 import software.amazon.awssdk.services.dynamodb.model.KeySchemaElement;
 import software.amazon.awssdk.services.dynamodb.model.KeyType;
+import software.amazon.awssdk.services.dynamodb.model.Projection;
+import software.amazon.awssdk.services.dynamodb.model.ProjectionType;
 import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughput;
 import software.amazon.awssdk.services.dynamodb.model.ScalarAttributeType;
 import software.amazon.dynamodb.services.local.embedded.DynamoDBEmbedded;
@@ -63,6 +68,10 @@ public class CacheServiceTestSetup {
                 AttributeDefinition.builder()
                     .attributeName(SORT_KEY)
                     .attributeType(ScalarAttributeType.S) // type as String
+                    .build(),
+                AttributeDefinition.builder()
+                    .attributeName(ISSN_INDEX_KEY)
+                    .attributeType(ScalarAttributeType.S)
                     .build())
             .keySchema(
                 KeySchemaElement.builder()
@@ -73,14 +82,25 @@ public class CacheServiceTestSetup {
                     .attributeName(SORT_KEY)
                     .keyType(KeyType.RANGE) // Sort key
                     .build())
-            .provisionedThroughput(
-                ProvisionedThroughput.builder()
-                    .readCapacityUnits(10L)
-                    .writeCapacityUnits(10L)
-                    .build())
+            .globalSecondaryIndexes(issnIndex())
+            .provisionedThroughput(provisionedThroughput())
             .tableName(tableName)
             .build();
 
     client.createTable(request);
   }
+
+  private static GlobalSecondaryIndex issnIndex() {
+    return GlobalSecondaryIndex.builder()
+        .indexName(ISSN_INDEX)
+        .keySchema(
+            KeySchemaElement.builder().attributeName(ISSN_INDEX_KEY).keyType(KeyType.HASH).build())
+        .projection(Projection.builder().projectionType(ProjectionType.ALL).build())
+        .provisionedThroughput(provisionedThroughput())
+        .build();
+  }
+
+  private static ProvisionedThroughput provisionedThroughput() {
+    return ProvisionedThroughput.builder().readCapacityUnits(10L).writeCapacityUnits(10L).build();
+  }
 }
@@ -0,0 +1,198 @@
+package no.sikt.nva.pubchannels.channelregistrycache.search;
+
+import static no.unit.nva.testutils.RandomDataGenerator.randomUri;
+import static nva.commons.core.attempt.Try.attempt;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import no.sikt.nva.pubchannels.channelregistry.ChannelType;
+import no.sikt.nva.pubchannels.channelregistrycache.ChannelRegistryCacheConfig;
+import no.sikt.nva.pubchannels.channelregistrycache.ChannelRegistryCacheEntry;
+import no.sikt.nva.pubchannels.handler.ThirdPartyPublicationChannel;
+import no.unit.nva.s3.S3Driver;
+import no.unit.nva.stubs.FakeS3Client;
+import nva.commons.core.ioutils.IoUtils;
+import nva.commons.core.paths.UnixPath;
+import org.junit.jupiter.api.Test;
+
+class LocalSearchIndexTest {
+
+  private static final String JOURNAL_FROM_CSV = "50561B90-6679-4FCD-BCB0-99E521B18962";
+  private static final String PUBLISHER_FROM_CSV = "09D6F92E-B0F6-4B62-90AB-1B9E767E9E11";
+  private static final String YEAR = "2024";
+
+  @Test
+  void shouldFindJournalByPrefixOfTitleWords() {
+    var index = loadIndexFromCsv();
+
+    var result = index.search(ChannelType.JOURNAL, "some tit", YEAR, 0, 10);
+
+    assertThat(identifiers(result), hasItem(JOURNAL_FROM_CSV));
+  }
+
+  @Test
+  void shouldFindJournalByIssnWithOrWithoutHyphen() {
+    var index = loadIndexFromCsv();
+
+    assertThat(
+        identifiers(index.search(ChannelType.JOURNAL, "0029-2001", YEAR, 0, 10)),
+        contains(JOURNAL_FROM_CSV));
+    assertThat(
+        identifiers(index.search(ChannelType.SERIAL_PUBLICATION, "0807-7096", YEAR, 0, 10)),
+        contains(JOURNAL_FROM_CSV));
+  }
+
+  @Test
+  void shouldFindPublisherByIsbnPrefix() {
+    var index = loadIndexFromCsv();
+
+    var result = index.search(ChannelType.PUBLISHER, "978-1-9996187", YEAR, 0, 10);
+
+    assertThat(identifiers(result), contains(PUBLISHER_FROM_CSV));
+  }
+
+  @Test
+  void shouldOnlyReturnChannelsOfRequestedType() {
+    var index = loadIndexFromCsv();
+
+    assertThat(identifiers(index.search(ChannelType.JOURNAL, "Agenda", YEAR, 0, 10)), is(empty()));
+    assertThat(
+        identifiers(index.search(ChannelType.PUBLISHER, "Agenda", YEAR, 0, 10)),
+        contains(PUBLISHER_FROM_CSV));
+  }
+
+  @Test
+  void shouldRankExactAndLeadingMatchesFirst() {
+    var index =
+        LocalSearchIndex.build(
+            Stream.of(
+                journal("Journal of Marine Biology"),
+                journal("Marine Biology"),
+                journal("Marine Biology Research")));
+
+    var result = index.search(ChannelType.JOURNAL, "marine biology", YEAR, 0, 10);
+
+    assertThat(
+        names(result),
+        contains("Marine Biology", "Marine Biology Research", "Journal of Marine Biology"));
+  }
+
+  @Test
+  void shouldMatchTitlesRegardlessOfDiacriticsAndCase() {
+    var index = LocalSearchIndex.build(Stream.of(journal("Tidsskrift for Søk og Åpenhet")));
+
+    var result = index.search(ChannelType.JOURNAL, "tidsskrift SØK", YEAR, 0, 10);
+
+    assertThat(names(result), contains("Tidsskrift for Søk og Åpenhet"));
+  }
+
+  @Test
+  void shouldFindMisspelledTitlesBySimilarTrigrams() {
+    var index =
+        LocalSearchIndex.build(
+            Stream.of(journal("Journal of Marine Biology"), journal("Applied Physics Letters")));
+
+    var result = index.search(ChannelType.JOURNAL, "jornal of marin biology", YEAR, 0, 10);
+
+    assertThat(names(result), contains("Journal of Marine Biology"));
+  }
+
+  @Test
+  void shouldRankTitlesContainingQueryWordsBeforeSimilarTitles() {
+    var index =
+        LocalSearchIndex.build(
+            Stream.of(
+                journal("Marina Biologi"),
+                journal("Studies in Marine Biology"),
+                journal("Applied Physics Letters")));
+
+    var firstPage = index.search(ChannelType.JOURNAL, "marine biology", YEAR, 0, 1);
+    var secondPage = index.search(ChannelType.JOURNAL, "marine biology", YEAR, 1, 1);
+
+    assertThat(firstPage.pageInformation().totalResults(), is(equalTo(2)));
+    assertThat(names(firstPage), contains("Studies in Marine Biology"));
+    assertThat(names(secondPage), contains("Marina Biologi"));
+  }
+
+  @Test
+  void shouldPageThroughMatchesAndReportTotal() {
+    var index =
+        LocalSearchIndex.build(
+            Stream.of(
+                journal("Acta Alpha"),
+                journal("Acta Beta"),
+                journal("Acta Gamma"),
+                journal("Acta Delta"),
+                journal("Acta Epsilon")));
+
+    var page = index.search(ChannelType.JOURNAL, "acta", YEAR, 2, 2);
+
+    assertThat(page.pageInformation().totalResults(), is(equalTo(5)));
+    assertThat(names(page), contains("Acta Delta", "Acta Gamma"));
+  }
+
+  @Test
+  void shouldReturnSameOrderWhenPagingAsWhenReadingOnePage() {
+    var words = List.of("acta", "journal", "studies", "nordic", "review", "marine", "history");
+    var index =
+        LocalSearchIndex.build(
+            IntStream.range(0, 2000)
+                .mapToObj(
+                    i ->
+                        journal(
+                            words.get(i % words.size())
+                                + " "
+                                + words.get(i / words.size() % words.size())
+                                + " "
+                                + i)));
+
+    var onePage = names(index.search(ChannelType.JOURNAL, "journal", YEAR, 0, 60));
+    var pages =
+        IntStream.range(0, 6)
+            .mapToObj(page -> index.search(ChannelType.JOURNAL, "journal", YEAR, page * 10, 10))
+            .flatMap(page -> names(page).stream())
+            .toList();
+
+    assertThat(pages, is(equalTo(onePage)));
+    assertThat(onePage.getFirst(), is(equalTo("journal acta 1")));
+  }
+
+  private static ChannelRegistryCacheEntry journal(String title) {
+    return ChannelRegistryCacheEntry.builder()
+        .withPid(UUID.randomUUID())
+        .withType("Tidsskrift")
+        .withOriginalTitle(title)
+        .withLevelHistory(List.of())
+        .withUri(randomUri().toString())
+        .build();
+  }
+
+  private static List<String> identifiers(LocalSearchResponse response) {
+    return response.hits().stream().map(ThirdPartyPublicationChannel::identifier).toList();
+  }
+
+  private static List<String> names(LocalSearchResponse response) {
+    return response.hits().stream().map(ThirdPartyPublicationChannel::name).toList();
+  }
+
+  private static LocalSearchIndex loadIndexFromCsv() {
+    var s3Client = new FakeS3Client();
+    var s3Driver = new S3Driver(s3Client, ChannelRegistryCacheConfig.CACHE_BUCKET);
+    var csv = IoUtils.stringFromResources(Path.of("cache.csv"));
+    attempt(
+            () ->
+                s3Driver.insertFile(
+                    UnixPath.of(ChannelRegistryCacheConfig.CHANNEL_REGISTER_CACHE_S3_OBJECT), csv))
+        .orElseThrow();
+    return LocalSearchIndex.load(s3Client);
+  }
+}
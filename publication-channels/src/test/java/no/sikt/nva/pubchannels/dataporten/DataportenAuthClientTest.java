@@ -0,0 +1,114 @@
+package no.sikt.nva.pubchannels.dataporten;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static java.net.HttpURLConnection.HTTP_OK;
+import static no.unit.nva.commons.json.JsonUtils.dtoObjectMapper;
+import static nva.commons.core.attempt.Try.attempt;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.github.tomakehurst.wiremock.junit5.WireMockRuntimeInfo;
+import com.github.tomakehurst.wiremock.junit5.WireMockTest;
+import java.net.URI;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import no.sikt.nva.pubchannels.dataporten.model.TokenBodyResponse;
+import no.unit.nva.stubs.WiremockHttpClient;
+import nva.commons.apigateway.exceptions.ApiGatewayException;
+import org.junit.jupiter.api.Test;
+
+@WireMockTest(httpsEnabled = true)
+class DataportenAuthClientTest {
+
+  private static final String TOKEN_PATH = "/oauth/token";
+  private static final Instant NOW = Instant.parse("2025-01-01T12:00:00Z");
+
+  @Test
+  void shouldReuseTokenUntilShortlyBeforeItExpires(WireMockRuntimeInfo runtimeInfo)
+      throws ApiGatewayException {
+    stubTokenResponse(new TokenBodyResponse("token1", "Bearer", 3600L));
+    var authClient = createAuthClient(runtimeInfo, Clock.fixed(NOW, ZoneOffset.UTC));
+
+    assertEquals("token1", authClient.getToken());
+    assertEquals("token1", authClient.getToken());
+
+    verify(1, postRequestedFor(urlPathEqualTo(TOKEN_PATH)));
+  }
+
+  @Test
+  void shouldFetchNewTokenWhenCachedTokenIsAboutToExpire(WireMockRuntimeInfo runtimeInfo)
+      throws ApiGatewayException {
+    stubTokenResponse(new TokenBodyResponse("token1", "Bearer", 3600L));
+    var clock = new MutableClock(NOW);
+    var authClient = createAuthClient(runtimeInfo, clock);
+
+    authClient.getToken();
+    clock.advance(Duration.ofSeconds(3590));
+    authClient.getToken();
+
+    verify(2, postRequestedFor(urlPathEqualTo(TOKEN_PATH)));
+  }
+
+  @Test
+  void shouldNotCacheTokenWhenExpiryIsMissing(WireMockRuntimeInfo runtimeInfo)
+      throws ApiGatewayException {
+    stubTokenResponse(new TokenBodyResponse("token1", "Bearer"));
+    var authClient = createAuthClient(runtimeInfo, Clock.fixed(NOW, ZoneOffset.UTC));
+
+    authClient.getToken();
+    authClient.getToken();
+
+    verify(2, postRequestedFor(urlPathEqualTo(TOKEN_PATH)));
+  }
+
+  private static DataportenAuthClient createAuthClient(
+      WireMockRuntimeInfo runtimeInfo, Clock clock) {
+    return new DataportenAuthClient(
+        WiremockHttpClient.create(), URI.create(runtimeInfo.getHttpsBaseUrl()), "", "", clock);
+  }
+
+  private static void stubTokenResponse(TokenBodyResponse body) {
+    stubFor(
+        post(TOKEN_PATH)
+            .willReturn(
+                aResponse()
+                    .withStatus(HTTP_OK)
+                    .withBody(
+                        attempt(() -> dtoObjectMapper.writeValueAsString(body)).orElseThrow())));
+  }
+
+  private static final class MutableClock extends Clock {
+
+    private Instant instant;
+
+    private MutableClock(Instant instant) {
+      this.instant = instant;
+    }
+
+    private void advance(Duration duration) {
+      instant = instant.plus(duration);
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return instant;
+    }
+  }
+}
@@ -0,0 +1,223 @@
+package no.sikt.nva.pubchannels.handler.batch;
+
+import static java.net.HttpURLConnection.HTTP_BAD_REQUEST;
+import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
+import static java.net.HttpURLConnection.HTTP_OK;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathMatching;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static no.sikt.nva.pubchannels.TestConstants.API_DOMAIN;
+import static no.sikt.nva.pubchannels.TestConstants.COGNITO_AUTHORIZER_URLS;
+import static no.sikt.nva.pubchannels.TestConstants.CUSTOM_DOMAIN_BASE_PATH;
+import static no.sikt.nva.pubchannels.TestConstants.WILD_CARD;
+import static no.sikt.nva.pubchannels.handler.TestUtils.mockChannelRegistryResponse;
+import static no.sikt.nva.pubchannels.handler.TestUtils.mockResponseWithHttpStatus;
+import static no.sikt.nva.pubchannels.handler.TestUtils.randomYear;
+import static no.unit.nva.commons.json.JsonUtils.dtoObjectMapper;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.StringContains.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.tomakehurst.wiremock.junit5.WireMockRuntimeInfo;
+import com.github.tomakehurst.wiremock.junit5.WireMockTest;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import no.sikt.nva.pubchannels.channelregistry.ChannelRegistryClient;
+import no.sikt.nva.pubchannels.channelregistrycache.db.service.CacheService;
+import no.sikt.nva.pubchannels.channelregistrycache.db.service.CacheServiceTestSetup;
+import no.sikt.nva.pubchannels.handler.TestChannel;
+import no.sikt.nva.pubchannels.handler.model.PublisherDto;
+import no.unit.nva.stubs.FakeContext;
+import no.unit.nva.stubs.WiremockHttpClient;
+import no.unit.nva.testutils.HandlerRequestBuilder;
+import nva.commons.apigateway.GatewayResponse;
+import nva.commons.apigateway.exceptions.ApiGatewayException;
+import nva.commons.core.Environment;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.zalando.problem.Problem;
+
+@WireMockTest(httpsEnabled = true)
+class BatchFetchPublicationChannelsHandlerTest extends CacheServiceTestSetup {
+
+  private static final FakeContext CONTEXT = new FakeContext();
+  private static final String JOURNAL_IDENTIFIER_FROM_CACHE =
+      "50561B90-6679-4FCD-BCB0-99E521B18962";
+  private static final String JOURNAL_YEAR_FROM_CACHE = "2024";
+  private static final String PUBLISHER_REGISTRY_PATH = "/findpublisher/";
+  private static Environment environment;
+  private ChannelRegistryClient channelRegistryClient;
+  private CacheService cacheService;
+  private ByteArrayOutputStream output;
+
+  @BeforeAll
+  static void beforeAll() {
+    environment = Mockito.mock(Environment.class);
+    when(environment.readEnv("ALLOWED_ORIGIN")).thenReturn(WILD_CARD);
+    when(environment.readEnv("API_DOMAIN")).thenReturn(API_DOMAIN);
+    when(environment.readEnv("CUSTOM_DOMAIN_BASE_PATH")).thenReturn(CUSTOM_DOMAIN_BASE_PATH);
+    when(environment.readEnv("API_HOST")).thenReturn(API_DOMAIN);
+    when(environment.readEnv("COGNITO_AUTHORIZER_URLS")).thenReturn(COGNITO_AUTHORIZER_URLS);
+  }
+
+  @BeforeEach
+  void setUp(WireMockRuntimeInfo runtimeInfo) {
+    super.setupDynamoDbTable();
+    channelRegistryClient =
+        new ChannelRegistryClient(
+            WiremockHttpClient.create(), URI.create(runtimeInfo.getHttpsBaseUrl()), null);
+    cacheService = new CacheService(super.getClient());
+    output = new ByteArrayOutputStream();
+  }
+
+  @Test
+  void shouldReturnResultForEachItemInRequestedOrder() throws IOException {
+    super.loadAndEnableCache();
+    var publisherIdentifier = UUID.randomUUID().toString().toUpperCase();
+    var year = randomYear();
+    var publisherBody =
+        new TestChannel(year, publisherIdentifier, PublisherDto.TYPE)
+            .asChannelRegistryPublisherBody();
+    mockChannelRegistryResponse(PUBLISHER_REGISTRY_PATH, year, publisherIdentifier, publisherBody);
+    var unknownIdentifier = UUID.randomUUID().toString().toUpperCase();
+    mockResponseWithHttpStatus(PUBLISHER_REGISTRY_PATH, unknownIdentifier, year, HTTP_NOT_FOUND);
+
+    var items =
+        List.of(
+            new BatchFetchItem("journal", JOURNAL_IDENTIFIER_FROM_CACHE, JOURNAL_YEAR_FROM_CACHE),
+            new BatchFetchItem("publisher", publisherIdentifier, year),
+            new BatchFetchItem("publisher", unknownIdentifier, year),
+            new BatchFetchItem("journal", "not-a-uuid", year));
+
+    createHandler(true).handleRequest(constructRequest(items), output, CONTEXT);
+
+    var response = GatewayResponse.fromOutputStream(output, String.class);
+    assertThat(response.getStatusCode(), is(equalTo(HTTP_OK)));
+
+    var results = dtoObjectMapper.readTree(response.getBody()).get("results");
+    assertThat(results.size(), is(equalTo(items.size())));
+    assertResult(results.get(0), JOURNAL_IDENTIFIER_FROM_CACHE, HTTP_OK);
+    assertResult(results.get(1), publisherIdentifier, HTTP_OK);
+    assertResult(results.get(2), unknownIdentifier, HTTP_NOT_FOUND);
+    assertResult(results.get(3), "not-a-uuid", HTTP_BAD_REQUEST);
+    assertThat(
+        results.get(0).get("channel").get("identifier").asText(),
+        is(equalTo(JOURNAL_IDENTIFIER_FROM_CACHE)));
+    assertThat(
+        results.get(1).get("channel").get("identifier").asText(),
+        is(equalTo(publisherIdentifier)));
+  }
+
+  @Test
+  void shouldFetchCacheMissesFromChannelRegistryWithoutReadingThemFromCacheAgain()
+      throws IOException, ApiGatewayException {
+    super.loadAndEnableCache();
+    var publisherIdentifier = UUID.randomUUID().toString().toUpperCase();
+    var year = randomYear();
+    mockChannelRegistryResponse(
+        PUBLISHER_REGISTRY_PATH,
+        year,
+        publisherIdentifier,
+        new TestChannel(year, publisherIdentifier, PublisherDto.TYPE)
+            .asChannelRegistryPublisherBody());
+    cacheService = Mockito.spy(cacheService);
+
+    createHandler(true)
+        .handleRequest(
+            constructRequest(List.of(new BatchFetchItem("publisher", publisherIdentifier, year))),
+            output,
+            CONTEXT);
+
+    var results =
+        dtoObjectMapper
+            .readTree(GatewayResponse.fromOutputStream(output, String.class).getBody())
+            .get("results");
+    assertResult(results.get(0), publisherIdentifier, HTTP_OK);
+    Mockito.verify(cacheService, never()).getChannel(any());
+    Mockito.verify(cacheService).getRedirect(publisherIdentifier);
+  }
+
+  @Test
+  void shouldResolveRememberedChannelsWithoutReadingThemFromCacheOrRegistryAgain()
+      throws IOException {
+    super.loadAndEnableCache();
+    var year = randomYear();
+    var unknownIdentifier = UUID.randomUUID().toString().toUpperCase();
+    mockResponseWithHttpStatus(PUBLISHER_REGISTRY_PATH, unknownIdentifier, year, HTTP_NOT_FOUND);
+    cacheService = Mockito.spy(cacheService);
+    var handler = createHandler(true);
+    var items =
+        List.of(
+            new BatchFetchItem("journal", JOURNAL_IDENTIFIER_FROM_CACHE, JOURNAL_YEAR_FROM_CACHE),
+            new BatchFetchItem("publisher", unknownIdentifier, year));
+
+    handler.handleRequest(constructRequest(items), new ByteArrayOutputStream(), CONTEXT);
+    handler.handleRequest(constructRequest(items), output, CONTEXT);
+
+    var results =
+        dtoObjectMapper
+            .readTree(GatewayResponse.fromOutputStream(output, String.class).getBody())
+            .get("results");
+    assertResult(results.get(0), JOURNAL_IDENTIFIER_FROM_CACHE, HTTP_OK);
+    assertResult(results.get(1), unknownIdentifier, HTTP_NOT_FOUND);
+    Mockito.verify(cacheService, times(1)).getChannels(any());
+    verify(1, getRequestedFor(urlPathMatching(".*" + unknownIdentifier + ".*")));
+  }
+
+  @Test
+  void shouldReturnBadRequestWhenRequestContainsNoItems() throws IOException {
+    createHandler(false).handleRequest(constructRequest(List.of()), output, CONTEXT);
+
+    var response = GatewayResponse.fromOutputStream(output, Problem.class);
+
+    assertThat(response.getStatusCode(), is(equalTo(HTTP_BAD_REQUEST)));
+  }
+
+  @Test
+  void shouldReturnBadRequestWhenRequestContainsTooManyItems() throws IOException {
+    var item = new BatchFetchItem("journal", JOURNAL_IDENTIFIER_FROM_CACHE, randomYear());
+    var items = Collections.nCopies(BatchFetchRequest.MAX_ITEMS + 1, item);
+
+    createHandler(false).handleRequest(constructRequest(items), output, CONTEXT);
+
+    var response = GatewayResponse.fromOutputStream(output, Problem.class);
+
+    assertThat(response.getStatusCode(), is(equalTo(HTTP_BAD_REQUEST)));
+    assertThat(
+        response.getBodyObject(Problem.class).getDetail(), is(containsString("too many items")));
+  }
+
+  private static void assertResult(JsonNode result, String identifier, int status) {
+    assertThat(result.get("identifier").asText(), is(equalTo(identifier)));
+    assertThat(result.get("status").asInt(), is(equalTo(status)));
+  }
+
+  private static InputStream constructRequest(List<BatchFetchItem> items)
+      throws JsonProcessingException {
+    return new HandlerRequestBuilder<BatchFetchRequest>(dtoObjectMapper)
+        .withBody(new BatchFetchRequest(items))
+        .build();
+  }
+
+  private BatchFetchPublicationChannelsHandler createHandler(boolean cacheEnabled) {
+    return new BatchFetchPublicationChannelsHandler(
+        environment,
+        channelRegistryClient,
+        cacheService,
+        super.getAppConfigWithCacheEnabled(cacheEnabled));
+  }
+}
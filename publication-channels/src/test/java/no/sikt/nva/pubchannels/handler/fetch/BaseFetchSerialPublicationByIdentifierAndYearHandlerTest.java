@@ -2,7 +2,9 @@ package no.sikt.nva.pubchannels.handler.fetch;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
 import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
 import static java.net.HttpURLConnection.HTTP_INTERNAL_ERROR;
 import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
 import static java.net.HttpURLConnection.HTTP_OK;
@@ -20,6 +22,7 @@ import static org.hamcrest.core.IsEqual.equalTo;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import com.github.tomakehurst.wiremock.client.WireMock;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.net.URI;
@@ -102,6 +105,24 @@ public abstract class BaseFetchSerialPublicationByIdentifierAndYearHandlerTest
     assertThat(actualSeries, is(equalTo(expectedChannel)));
   }
 
+  @Test
+  void shouldServeRepeatedRequestForSameChannelFromMemory() throws IOException {
+    var expectedChannel = mockChannelFoundAndReturnExpectedResponse(year, identifier, type);
+
+    handlerUnderTest.handleRequest(
+        constructRequest(year, identifier, nvaChannelPath, MediaType.ANY_TYPE), output, context);
+    var secondOutput = new ByteArrayOutputStream();
+    handlerUnderTest.handleRequest(
+        constructRequest(year, identifier, nvaChannelPath, MediaType.ANY_TYPE),
+        secondOutput,
+        context);
+
+    var response = GatewayResponse.fromOutputStream(secondOutput, SerialPublicationDto.class);
+    assertThat(response.getBodyObject(SerialPublicationDto.class), is(equalTo(expectedChannel)));
+    WireMock.verify(
+        1, getRequestedFor(urlPathEqualTo(channelRegistryPathElement + identifier + "/" + year)));
+  }
+
   @Test
   void shouldIncludeYearInResponse() throws IOException {
     var input = constructRequest(year, identifier, nvaChannelPath, MediaType.ANY_TYPE);
@@ -1,5 +1,8 @@
 package no.sikt.nva.pubchannels.handler.fetch;
 
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
 import static java.net.HttpURLConnection.HTTP_BAD_GATEWAY;
 import static java.net.HttpURLConnection.HTTP_BAD_REQUEST;
 import static java.net.HttpURLConnection.HTTP_INTERNAL_ERROR;
@@ -20,8 +23,11 @@ import static no.sikt.nva.pubchannels.handler.TestUtils.setupInterruptedClient;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsNot.not;
+import static org.hamcrest.core.IsSame.sameInstance;
 import static org.hamcrest.core.StringContains.containsString;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.when;
 
 import com.amazonaws.services.lambda.runtime.Context;
@@ -40,6 +46,8 @@ import no.unit.nva.stubs.FakeContext;
 import no.unit.nva.stubs.WiremockHttpClient;
 import nva.commons.apigateway.GatewayResponse;
 import nva.commons.apigateway.MediaType;
+import nva.commons.apigateway.exceptions.BadRequestException;
+import nva.commons.apigateway.exceptions.NotFoundException;
 import nva.commons.core.Environment;
 import nva.commons.core.paths.UriWrapper;
 import nva.commons.logutils.LogRecorder;
@@ -150,6 +158,67 @@ public abstract class FetchByIdentifierAndYearHandlerTest extends CacheServiceTe
     assertThat(problem.getDetail(), is(equalTo("Publication channel not found!")));
   }
 
+  @Test
+  void shouldRememberNotFoundResponseForRepeatedRequests() throws IOException {
+    mockResponseWithHttpStatus(channelRegistryPathElement, identifier, year, HTTP_NOT_FOUND);
+
+    handlerUnderTest.handleRequest(
+        constructRequest(year, identifier, nvaChannelPath, MediaType.ANY_TYPE), output, context);
+    var secondOutput = new ByteArrayOutputStream();
+    handlerUnderTest.handleRequest(
+        constructRequest(year, identifier, nvaChannelPath, MediaType.ANY_TYPE),
+        secondOutput,
+        context);
+
+    var response = GatewayResponse.fromOutputStream(secondOutput, Problem.class);
+    assertThat(response.getStatusCode(), is(equalTo(HTTP_NOT_FOUND)));
+    assertThat(
+        response.getBodyObject(Problem.class).getDetail(),
+        is(equalTo("Publication channel not found!")));
+    verify(
+        1, getRequestedFor(urlPathEqualTo(channelRegistryPathElement + identifier + "/" + year)));
+  }
+
+  @Test
+  void shouldThrowNewExceptionEachTimeRememberedNotFoundIsServed() throws BadRequestException {
+    mockResponseWithHttpStatus(channelRegistryPathElement, identifier, year, HTTP_NOT_FOUND);
+    var service =
+        new PublicationChannelService(
+            channelRegistryClient, cacheService, getAppConfigWithCacheEnabled(false), environment);
+    var requestObject = RequestObject.fromValues(nvaChannelPath, identifier, year);
+
+    assertThrows(NotFoundException.class, () -> service.fetchChannel(requestObject));
+    var first = assertThrows(NotFoundException.class, () -> service.fetchChannel(requestObject));
+    var second = assertThrows(NotFoundException.class, () -> service.fetchChannel(requestObject));
+
+    assertThat(second, is(not(sameInstance(first))));
+    assertThat(second.getMessage(), is(equalTo(first.getMessage())));
+    verify(
+        1, getRequestedFor(urlPathEqualTo(channelRegistryPathElement + identifier + "/" + year)));
+  }
+
+  @Test
+  void shouldReturnBadGatewayAndNotRememberNotFoundWhenChannelRegistryFailsAfterCacheMiss()
+      throws IOException {
+    mockResponseWithHttpStatus(channelRegistryPathElement, identifier, year, HTTP_INTERNAL_ERROR);
+    var handler =
+        new FetchPublicationChannelHandler(
+            environment, channelRegistryClient, cacheService, getAppConfigWithCacheEnabled(true));
+
+    handler.handleRequest(
+        constructRequest(year, identifier, nvaChannelPath, MediaType.ANY_TYPE), output, context);
+    var secondOutput = new ByteArrayOutputStream();
+    handler.handleRequest(
+        constructRequest(year, identifier, nvaChannelPath, MediaType.ANY_TYPE),
+        secondOutput,
+        context);
+
+    var response = GatewayResponse.fromOutputStream(secondOutput, Problem.class);
+    assertThat(response.getStatusCode(), is(equalTo(HTTP_BAD_GATEWAY)));
+    verify(
+        2, getRequestedFor(urlPathEqualTo(channelRegistryPathElement + identifier + "/" + year)));
+  }
+
   @Test
   void
       shouldLogAndReturnBadGatewayWhenChannelClientReturnsUnhandledResponseCodeAndChannelIsNotCached()
@@ -222,4 +291,90 @@ public abstract class FetchByIdentifierAndYearHandlerTest extends CacheServiceTe
     assertEquals(expectedLocation, response.getHeaders().get(LOCATION));
     assertEquals(WILD_CARD, response.getHeaders().get(ACCESS_CONTROL_ALLOW_ORIGIN));
   }
+
+  @ParameterizedTest(name = "cache enabled: {0}")
+  @ValueSource(booleans = {true, false})
+  void shouldPersistRedirectOnlyWhenCacheIsEnabled(boolean cacheEnabled) throws IOException {
+    var requestedIdentifier = UUID.randomUUID().toString().toUpperCase();
+    var newIdentifier = UUID.randomUUID().toString().toUpperCase();
+    mockRedirectedClient(
+        requestedIdentifier,
+        UriWrapper.fromHost(channelRegistryBaseUri)
+            .addChild(channelRegistryPathElement, newIdentifier, year)
+            .toString(),
+        year,
+        channelRegistryPathElement);
+    var handler =
+        new FetchPublicationChannelHandler(
+            environment,
+            channelRegistryClient,
+            cacheService,
+            getAppConfigWithCacheEnabled(cacheEnabled));
+
+    handler.handleRequest(
+        constructRequest(year, requestedIdentifier, nvaChannelPath, MediaType.ANY_TYPE),
+        output,
+        context);
+
+    assertEquals(cacheEnabled, cacheService.getRedirect(requestedIdentifier).isPresent());
+  }
+
+  @Test
+  void shouldAnswerRepeatedRequestForMovedChannelWithoutCallingChannelRegistry()
+      throws IOException {
+    var requestedIdentifier = UUID.randomUUID().toString().toUpperCase();
+    var newIdentifier = UUID.randomUUID().toString().toUpperCase();
+    mockRedirectedClient(
+        requestedIdentifier,
+        UriWrapper.fromHost(channelRegistryBaseUri)
+            .addChild(channelRegistryPathElement, newIdentifier, year)
+            .toString(),
+        year,
+        channelRegistryPathElement);
+    handlerUnderTest.handleRequest(
+        constructRequest(year, requestedIdentifier, nvaChannelPath, MediaType.ANY_TYPE),
+        output,
+        context);
+
+    var secondOutput = new ByteArrayOutputStream();
+    handlerUnderTest.handleRequest(
+        constructRequest(year, requestedIdentifier, nvaChannelPath, MediaType.ANY_TYPE),
+        secondOutput,
+        context);
+
+    var response = GatewayResponse.fromOutputStream(secondOutput, HttpResponse.class);
+    assertEquals(HTTP_MOVED_PERM, response.getStatusCode());
+    assertEquals(
+        createPublicationChannelUri(newIdentifier, nvaChannelPath, year).toString(),
+        response.getHeaders().get(LOCATION));
+    verify(
+        1,
+        getRequestedFor(
+            urlPathEqualTo(channelRegistryPathElement + requestedIdentifier + "/" + year)));
+  }
+
+  @Test
+  void shouldReturnRedirectFromPersistedRedirectWhenCacheIsEnabled() throws IOException {
+    var requestedIdentifier = UUID.randomUUID().toString().toUpperCase();
+    var newIdentifier = UUID.randomUUID().toString().toUpperCase();
+    cacheService.saveRedirect(requestedIdentifier, newIdentifier);
+    var handler =
+        new FetchPublicationChannelHandler(
+            environment, channelRegistryClient, cacheService, getAppConfigWithCacheEnabled(true));
+
+    handler.handleRequest(
+        constructRequest(year, requestedIdentifier, nvaChannelPath, MediaType.ANY_TYPE),
+        output,
+        context);
+
+    var response = GatewayResponse.fromOutputStream(output, HttpResponse.class);
+    assertEquals(HTTP_MOVED_PERM, response.getStatusCode());
+    assertEquals(
+        createPublicationChannelUri(newIdentifier, nvaChannelPath, year).toString(),
+        response.getHeaders().get(LOCATION));
+    verify(
+        0,
+        getRequestedFor(
+            urlPathEqualTo(channelRegistryPathElement + requestedIdentifier + "/" + year)));
+  }
 }
@@ -0,0 +1,144 @@
+package no.sikt.nva.pubchannels.handler.levels;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
+import static java.net.HttpURLConnection.HTTP_OK;
+import static no.sikt.nva.pubchannels.TestConstants.API_DOMAIN;
+import static no.sikt.nva.pubchannels.TestConstants.COGNITO_AUTHORIZER_URLS;
+import static no.sikt.nva.pubchannels.TestConstants.CUSTOM_DOMAIN_BASE_PATH;
+import static no.sikt.nva.pubchannels.TestConstants.WILD_CARD;
+import static no.sikt.nva.pubchannels.handler.TestUtils.currentYear;
+import static no.unit.nva.commons.json.JsonUtils.dtoObjectMapper;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.github.tomakehurst.wiremock.junit5.WireMockRuntimeInfo;
+import com.github.tomakehurst.wiremock.junit5.WireMockTest;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Map;
+import java.util.UUID;
+import no.sikt.nva.pubchannels.channelregistry.ChannelRegistryClient;
+import no.sikt.nva.pubchannels.channelregistrycache.db.service.CacheService;
+import no.sikt.nva.pubchannels.channelregistrycache.db.service.CacheServiceTestSetup;
+import no.sikt.nva.pubchannels.handler.ScientificValue;
+import no.sikt.nva.pubchannels.handler.TestChannel;
+import no.sikt.nva.pubchannels.handler.model.PublisherDto;
+import no.unit.nva.stubs.FakeContext;
+import no.unit.nva.stubs.WiremockHttpClient;
+import no.unit.nva.testutils.HandlerRequestBuilder;
+import nva.commons.apigateway.GatewayResponse;
+import nva.commons.core.Environment;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.zalando.problem.Problem;
+
+@WireMockTest(httpsEnabled = true)
+class FetchScientificValueHistoryHandlerTest extends CacheServiceTestSetup {
+
+  private static final FakeContext CONTEXT = new FakeContext();
+  private static final String JOURNAL_IDENTIFIER_FROM_CACHE =
+      "50561B90-6679-4FCD-BCB0-99E521B18962";
+  private static Environment environment;
+  private FetchScientificValueHistoryHandler handlerUnderTest;
+  private ByteArrayOutputStream output;
+
+  @BeforeAll
+  static void beforeAll() {
+    environment = Mockito.mock(Environment.class);
+    when(environment.readEnv("ALLOWED_ORIGIN")).thenReturn(WILD_CARD);
+    when(environment.readEnv("API_DOMAIN")).thenReturn(API_DOMAIN);
+    when(environment.readEnv("CUSTOM_DOMAIN_BASE_PATH")).thenReturn(CUSTOM_DOMAIN_BASE_PATH);
+    when(environment.readEnv("API_HOST")).thenReturn(API_DOMAIN);
+    when(environment.readEnv("COGNITO_AUTHORIZER_URLS")).thenReturn(COGNITO_AUTHORIZER_URLS);
+  }
+
+  @BeforeEach
+  void setUp(WireMockRuntimeInfo runtimeInfo) {
+    super.setupDynamoDbTable();
+    var channelRegistryClient =
+        new ChannelRegistryClient(
+            WiremockHttpClient.create(), URI.create(runtimeInfo.getHttpsBaseUrl()), null);
+    handlerUnderTest =
+        new FetchScientificValueHistoryHandler(
+            environment,
+            channelRegistryClient,
+            new CacheService(super.getClient()),
+            super.getAppConfigWithCacheEnabled(false));
+    output = new ByteArrayOutputStream();
+  }
+
+  @Test
+  void shouldReturnEveryYearOfCachedLevelHistoryInChronologicalOrder() throws IOException {
+    super.loadAndEnableCache();
+
+    handlerUnderTest.handleRequest(
+        constructRequest("journal", JOURNAL_IDENTIFIER_FROM_CACHE), output, CONTEXT);
+
+    var response = GatewayResponse.fromOutputStream(output, ScientificValueHistoryDto.class);
+    assertThat(response.getStatusCode(), is(equalTo(HTTP_OK)));
+
+    var levels = response.getBodyObject(ScientificValueHistoryDto.class).levels();
+    var years = levels.stream().map(ScientificValueHistoryDto.YearlyScientificValue::year).toList();
+    assertThat(years, is(equalTo(years.stream().sorted().toList())));
+    var latest = levels.getLast();
+    assertThat(latest.year(), is(equalTo("2024")));
+    assertThat(latest.scientificValue(), is(equalTo(ScientificValue.LEVEL_ONE)));
+  }
+
+  @Test
+  void shouldReturnCurrentLevelFromChannelRegistryWhenChannelIsNotCached() throws IOException {
+    var identifier = UUID.randomUUID().toString().toUpperCase();
+    var body =
+        new TestChannel(currentYear(), identifier, PublisherDto.TYPE)
+            .withScientificValueReviewNotice(Map.of("en", "some comment", "no", "vedtak"))
+            .asChannelRegistryPublisherBody();
+    stubFor(
+        get("/findpublisher/" + identifier)
+            .willReturn(
+                aResponse()
+                    .withStatus(HTTP_OK)
+                    .withHeader("Content-Type", "application/json;charset=UTF-8")
+                    .withBody(body)));
+
+    handlerUnderTest.handleRequest(constructRequest("publisher", identifier), output, CONTEXT);
+
+    var response = GatewayResponse.fromOutputStream(output, ScientificValueHistoryDto.class);
+    assertThat(response.getStatusCode(), is(equalTo(HTTP_OK)));
+
+    var levels = response.getBodyObject(ScientificValueHistoryDto.class).levels();
+    assertThat(levels, hasSize(1));
+    assertThat(levels.getFirst().year(), is(equalTo(currentYear())));
+    assertThat(
+        levels.getFirst().reviewNotice().comments(),
+        is(equalTo(Map.of("en", "some comment", "no", "vedtak"))));
+  }
+
+  @Test
+  void shouldReturnNotFoundWhenChannelIsNeitherCachedNorInChannelRegistry() throws IOException {
+    var identifier = UUID.randomUUID().toString().toUpperCase();
+    stubFor(get("/findjournal/" + identifier).willReturn(aResponse().withStatus(HTTP_NOT_FOUND)));
+
+    handlerUnderTest.handleRequest(constructRequest("journal", identifier), output, CONTEXT);
+
+    var response = GatewayResponse.fromOutputStream(output, Problem.class);
+    assertThat(response.getStatusCode(), is(equalTo(HTTP_NOT_FOUND)));
+  }
+
+  private static InputStream constructRequest(String type, String identifier)
+      throws JsonProcessingException {
+    return new HandlerRequestBuilder<Void>(dtoObjectMapper)
+        .withPathParameters(Map.of("type", type, "identifier", identifier))
+        .build();
+  }
+}
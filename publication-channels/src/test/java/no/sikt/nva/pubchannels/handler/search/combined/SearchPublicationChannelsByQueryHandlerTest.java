@@ -0,0 +1,215 @@
+package no.sikt.nva.pubchannels.handler.search.combined;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static java.net.HttpURLConnection.HTTP_BAD_GATEWAY;
+import static java.net.HttpURLConnection.HTTP_BAD_REQUEST;
+import static java.net.HttpURLConnection.HTTP_INTERNAL_ERROR;
+import static java.net.HttpURLConnection.HTTP_OK;
+import static no.sikt.nva.pubchannels.HttpHeaders.CONTENT_TYPE;
+import static no.sikt.nva.pubchannels.HttpHeaders.CONTENT_TYPE_APPLICATION_JSON_UTF8;
+import static no.sikt.nva.pubchannels.TestConstants.API_DOMAIN;
+import static no.sikt.nva.pubchannels.TestConstants.COGNITO_AUTHORIZER_URLS;
+import static no.sikt.nva.pubchannels.TestConstants.CUSTOM_DOMAIN_BASE_PATH;
+import static no.sikt.nva.pubchannels.TestConstants.JOURNAL_TYPE;
+import static no.sikt.nva.pubchannels.TestConstants.SERIES_TYPE;
+import static no.sikt.nva.pubchannels.TestConstants.WILD_CARD;
+import static no.sikt.nva.pubchannels.handler.TestUtils.constructRequest;
+import static no.sikt.nva.pubchannels.handler.TestUtils.getChannelRegistrySearchResponseBody;
+import static no.sikt.nva.pubchannels.handler.TestUtils.randomYear;
+import static no.unit.nva.commons.json.JsonUtils.dtoObjectMapper;
+import static no.unit.nva.testutils.RandomDataGenerator.randomString;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.github.tomakehurst.wiremock.junit5.WireMockRuntimeInfo;
+import com.github.tomakehurst.wiremock.junit5.WireMockTest;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+import no.sikt.nva.pubchannels.channelregistry.ChannelRegistryClient;
+import no.sikt.nva.pubchannels.handler.TestChannel;
+import no.unit.nva.stubs.FakeContext;
+import no.unit.nva.stubs.WiremockHttpClient;
+import nva.commons.apigateway.GatewayResponse;
+import nva.commons.apigateway.MediaType;
+import nva.commons.core.Environment;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.Mockito;
+import org.zalando.problem.Problem;
+
+@WireMockTest(httpsEnabled = true)
+class SearchPublicationChannelsByQueryHandlerTest {
+
+  private static final FakeContext CONTEXT = new FakeContext();
+  private static final String PUBLISHER_TYPE = "Publisher";
+  private static final String YEAR = randomYear();
+  private static final String QUERY = randomString();
+  private static Environment environment;
+  private SearchPublicationChannelsByQueryHandler handlerUnderTest;
+  private ByteArrayOutputStream output;
+
+  @BeforeAll
+  static void beforeAll() {
+    environment = Mockito.mock(Environment.class);
+    when(environment.readEnv("ALLOWED_ORIGIN")).thenReturn(WILD_CARD);
+    when(environment.readEnv("API_DOMAIN")).thenReturn(API_DOMAIN);
+    when(environment.readEnv("CUSTOM_DOMAIN_BASE_PATH")).thenReturn(CUSTOM_DOMAIN_BASE_PATH);
+    when(environment.readEnv("API_HOST")).thenReturn(API_DOMAIN);
+    when(environment.readEnv("COGNITO_AUTHORIZER_URLS")).thenReturn(COGNITO_AUTHORIZER_URLS);
+  }
+
+  @BeforeEach
+  void setUp(WireMockRuntimeInfo runtimeInfo) {
+    var channelRegistryBaseUri = URI.create(runtimeInfo.getHttpsBaseUrl());
+    var client =
+        new ChannelRegistryClient(WiremockHttpClient.create(), channelRegistryBaseUri, null);
+    handlerUnderTest = new SearchPublicationChannelsByQueryHandler(environment, client);
+    output = new ByteArrayOutputStream();
+  }
+
+  @Test
+  void shouldReturnHitsAndTotalsOfEachRequestedTypeInRequestedOrder() throws IOException {
+    stubSearchResponse("findjournal", channels(JOURNAL_TYPE, 2));
+    stubSearchResponse("findseries", channels(SERIES_TYPE, 1));
+    stubSearchResponse("findpublisher", channels(PUBLISHER_TYPE, 1));
+
+    var body = search(Map.of("query", QUERY, "year", YEAR, "types", "series,journal,publisher"));
+
+    assertThat(body.get("totalHits").asInt(), is(equalTo(4)));
+    assertThat(body.get("totalHitsByType").get("series").asInt(), is(equalTo(1)));
+    assertThat(body.get("totalHitsByType").get("journal").asInt(), is(equalTo(2)));
+    assertThat(body.get("totalHitsByType").get("publisher").asInt(), is(equalTo(1)));
+    assertThat(typesOfHits(body), contains("Series", "Journal", "Journal", "Publisher"));
+  }
+
+  @Test
+  void shouldSearchJournalsSeriesAndPublishersWhenTypesAreNotGiven() throws IOException {
+    stubSearchResponse("findjournal", channels(JOURNAL_TYPE, 1));
+    stubSearchResponse("findseries", channels(SERIES_TYPE, 1));
+    stubSearchResponse("findpublisher", channels(PUBLISHER_TYPE, 1));
+
+    var body = search(Map.of("query", QUERY, "year", YEAR));
+
+    assertThat(typesOfHits(body), contains("Journal", "Series", "Publisher"));
+  }
+
+  @Test
+  void shouldOnlySearchRequestedTypes() throws IOException {
+    stubSearchResponse("findpublisher", channels(PUBLISHER_TYPE, 1));
+
+    search(Map.of("query", QUERY, "year", YEAR, "types", "publisher"));
+
+    verify(1, getRequestedFor(urlPathEqualTo("/findpublisher/channels")));
+    verify(0, getRequestedFor(urlPathEqualTo("/findjournal/channels")));
+    verify(0, getRequestedFor(urlPathEqualTo("/findseries/channels")));
+  }
+
+  @Test
+  void shouldLinkToNextPageWhenAnyTypeHasMoreHits() throws IOException {
+    stubSearchResponse("findjournal", channels(JOURNAL_TYPE, 15));
+    stubSearchResponse("findpublisher", channels(PUBLISHER_TYPE, 3));
+
+    var body = search(Map.of("query", QUERY, "year", YEAR, "types", "journal,publisher"));
+
+    assertThat(body.get("totalHits").asInt(), is(equalTo(18)));
+    assertThat(body.get("hits").size(), is(equalTo(13)));
+    assertThat(body.get("nextResults").asText(), containsString("offset=10"));
+    assertThat(body.get("nextResults").asText(), containsString("publisher"));
+  }
+
+  @Test
+  void shouldReturnBadRequestWhenTypeIsUnknown() throws IOException {
+    handlerUnderTest.handleRequest(
+        constructRequest(Map.of("query", QUERY, "types", "journal,magazine"), MediaType.ANY_TYPE),
+        output,
+        CONTEXT);
+
+    var response = GatewayResponse.fromOutputStream(output, Problem.class);
+    assertThat(response.getStatusCode(), is(equalTo(HTTP_BAD_REQUEST)));
+  }
+
+  @ParameterizedTest(name = "types {0}")
+  @ValueSource(strings = {"journal,serial-publication", "serial-publication,series,publisher"})
+  void shouldReturnBadRequestWhenSerialPublicationIsCombinedWithJournalOrSeries(String types)
+      throws IOException {
+    handlerUnderTest.handleRequest(
+        constructRequest(Map.of("query", QUERY, "types", types), MediaType.ANY_TYPE),
+        output,
+        CONTEXT);
+
+    var response = GatewayResponse.fromOutputStream(output, Problem.class);
+    assertThat(response.getStatusCode(), is(equalTo(HTTP_BAD_REQUEST)));
+    assertThat(
+        response.getBodyObject(Problem.class).getDetail(), containsString("serial-publication"));
+  }
+
+  @Test
+  void shouldReturnBadGatewayWhenSearchOfAnyTypeFails() throws IOException {
+    stubSearchResponse("findjournal", channels(JOURNAL_TYPE, 1));
+    stubFor(
+        get(urlPathEqualTo("/findseries/channels"))
+            .willReturn(aResponse().withStatus(HTTP_INTERNAL_ERROR)));
+
+    handlerUnderTest.handleRequest(
+        constructRequest(
+            Map.of("query", QUERY, "year", YEAR, "types", "journal,series"), MediaType.ANY_TYPE),
+        output,
+        CONTEXT);
+
+    var response = GatewayResponse.fromOutputStream(output, Problem.class);
+    assertThat(response.getStatusCode(), is(equalTo(HTTP_BAD_GATEWAY)));
+  }
+
+  private JsonNode search(Map<String, String> queryParameters) throws IOException {
+    handlerUnderTest.handleRequest(
+        constructRequest(queryParameters, MediaType.ANY_TYPE), output, CONTEXT);
+    var response = GatewayResponse.fromOutputStream(output, CombinedSearchResult.class);
+    assertThat(response.getStatusCode(), is(equalTo(HTTP_OK)));
+    return dtoObjectMapper.readTree(response.getBody());
+  }
+
+  private static List<String> typesOfHits(JsonNode body) {
+    return StreamSupport.stream(body.get("hits").spliterator(), false)
+        .map(hit -> hit.get("type").asText())
+        .toList();
+  }
+
+  private static List<String> channels(String type, int count) {
+    return IntStream.range(0, count)
+        .mapToObj(i -> new TestChannel(YEAR, UUID.randomUUID().toString(), type))
+        .map(TestChannel::asChannelRegistryResponseBody)
+        .toList();
+  }
+
+  private static void stubSearchResponse(String channelRegistryPathElement, List<String> results) {
+    stubFor(
+        get(urlPathEqualTo("/" + channelRegistryPathElement + "/channels"))
+            .withQueryParam("name", WireMock.equalTo(QUERY))
+            .withQueryParam("year", WireMock.equalTo(YEAR))
+            .willReturn(
+                aResponse()
+                    .withStatus(HTTP_OK)
+                    .withHeader(CONTENT_TYPE, CONTENT_TYPE_APPLICATION_JSON_UTF8)
+                    .withBody(getChannelRegistrySearchResponseBody(results, 0, 10))));
+  }
+}
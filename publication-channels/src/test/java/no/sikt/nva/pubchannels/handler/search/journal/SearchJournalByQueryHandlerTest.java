@@ -1,17 +1,65 @@
 package no.sikt.nva.pubchannels.handler.search.journal;
 
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.nonNull;
 import static no.sikt.nva.pubchannels.TestConstants.API_DOMAIN;
+import static no.sikt.nva.pubchannels.TestConstants.CHANNEL_REGISTRY_PAGE_NO_PARAM;
 import static no.sikt.nva.pubchannels.TestConstants.CUSTOM_DOMAIN_BASE_PATH;
+import static no.sikt.nva.pubchannels.TestConstants.DEFAULT_SIZE_INT;
 import static no.sikt.nva.pubchannels.TestConstants.JOURNAL_PATH;
 import static no.sikt.nva.pubchannels.TestConstants.JOURNAL_TYPE;
+import static no.sikt.nva.pubchannels.TestConstants.NAME_QUERY_PARAM;
+import static no.sikt.nva.pubchannels.handler.TestUtils.constructRequest;
+import static no.unit.nva.testutils.RandomDataGenerator.randomUri;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.StringContains.containsString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.when;
 
+import com.amazonaws.services.lambda.runtime.Context;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 import no.sikt.nva.pubchannels.channelregistry.ChannelType;
+import no.sikt.nva.pubchannels.channelregistrycache.ChannelRegistryCacheEntry;
+import no.sikt.nva.pubchannels.channelregistrycache.db.service.CacheService;
+import no.sikt.nva.pubchannels.channelregistrycache.search.LocalSearchIndex;
+import no.sikt.nva.pubchannels.handler.TestChannel;
 import no.sikt.nva.pubchannels.handler.search.BaseSearchSerialPublicationByQueryHandlerTest;
+import no.sikt.nva.pubchannels.utils.ExpiringCache;
+import no.sikt.nva.pubchannels.utils.FakeAppConfig;
+import no.unit.nva.commons.pagination.PaginatedSearchResult;
+import no.unit.nva.stubs.FakeContext;
+import nva.commons.apigateway.GatewayResponse;
+import nva.commons.apigateway.MediaType;
 import nva.commons.core.paths.UriWrapper;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.zalando.problem.Problem;
 
 class SearchJournalByQueryHandlerTest extends BaseSearchSerialPublicationByQueryHandlerTest {
 
+  private static final String LOCAL_TITLE = "Local Journal of Indexing";
+
   @BeforeEach
   void setup() {
     this.handlerUnderTest = new SearchJournalByQueryHandler(environment, publicationChannelClient);
@@ -23,4 +71,252 @@ class SearchJournalByQueryHandlerTest extends BaseSearchSerialPublicationByQuery
             .addChild(JOURNAL_PATH)
             .getUri();
   }
+
+  @Test
+  void shouldSearchLocalIndexWhenLocalSearchIsEnabled() throws IOException {
+    var index = LocalSearchIndex.build(Stream.of(localJournal()));
+    var handler =
+        new SearchJournalByQueryHandler(
+            environment,
+            publicationChannelClient,
+            mock(CacheService.class),
+            new FakeAppConfig(false, true),
+            () -> index);
+
+    var input =
+        constructRequest(Map.of("year", year, "query", "local journal"), MediaType.ANY_TYPE);
+    handler.handleRequest(input, output, context);
+
+    var response = GatewayResponse.fromOutputStream(output, PaginatedSearchResult.class);
+    assertThat(response.getStatusCode(), is(equalTo(HttpURLConnection.HTTP_OK)));
+    assertThat(getActualSearchResult(response).getTotalHits(), is(equalTo(1)));
+    assertThat(response.getBody(), containsString(LOCAL_TITLE));
+  }
+
+  @Test
+  void shouldFallBackToChannelRegistryWhenLocalSearchFails() throws IOException {
+    var testChannel = new TestChannel(year, pid, type).withName(name);
+    mockChannelRegistryResponse(
+        year, NAME_QUERY_PARAM, name, List.of(testChannel.asChannelRegistryResponseBody()));
+    var handler =
+        new SearchJournalByQueryHandler(
+            environment,
+            publicationChannelClient,
+            mock(CacheService.class),
+            new FakeAppConfig(false, true),
+            () -> {
+              throw new IllegalStateException("Index unavailable");
+            });
+
+    var input = constructRequest(Map.of("year", year, "query", name), MediaType.ANY_TYPE);
+    handler.handleRequest(input, output, context);
+
+    var response = GatewayResponse.fromOutputStream(output, PaginatedSearchResult.class);
+    assertThat(response.getStatusCode(), is(equalTo(HttpURLConnection.HTTP_OK)));
+    assertThat(getActualSearchResult(response).getTotalHits(), is(equalTo(1)));
+  }
+
+  @Test
+  void shouldLookUpIssnInCacheWhenCacheIsEnabled() throws IOException {
+    var cacheService = mock(CacheService.class);
+    when(cacheService.findByIssn(issn)).thenReturn(List.of(localJournal()));
+    var handler =
+        new SearchJournalByQueryHandler(
+            environment,
+            publicationChannelClient,
+            cacheService,
+            new FakeAppConfig(true, false),
+            () -> null);
+
+    var input = constructRequest(Map.of("year", year, "query", issn), MediaType.ANY_TYPE);
+    handler.handleRequest(input, output, context);
+
+    var response = GatewayResponse.fromOutputStream(output, PaginatedSearchResult.class);
+    assertThat(response.getStatusCode(), is(equalTo(HttpURLConnection.HTTP_OK)));
+    assertThat(getActualSearchResult(response).getTotalHits(), is(equalTo(1)));
+    assertThat(response.getBody(), containsString(LOCAL_TITLE));
+  }
+
+  @Test
+  void shouldAnswerRepeatedSearchFromSearchResultCache() throws IOException {
+    var testChannel = new TestChannel(year, pid, type).withName(name);
+    mockChannelRegistryResponse(
+        year, NAME_QUERY_PARAM, name, List.of(testChannel.asChannelRegistryResponseBody()));
+
+    handlerUnderTest.handleRequest(
+        constructRequest(Map.of("year", year, "query", name), MediaType.ANY_TYPE),
+        new ByteArrayOutputStream(),
+        context);
+    handlerUnderTest.handleRequest(
+        constructRequest(
+            Map.of("year", year, "query", name.toUpperCase(Locale.ROOT)), MediaType.ANY_TYPE),
+        output,
+        context);
+
+    var response = GatewayResponse.fromOutputStream(output, PaginatedSearchResult.class);
+    assertThat(getActualSearchResult(response).getTotalHits(), is(equalTo(1)));
+    verify(1, getRequestedFor(urlPathEqualTo("/" + customChannelPath + "/channels")));
+    assertThat(
+        handlerUnderTest.searchResultCacheStatistics(),
+        is(equalTo(new ExpiringCache.Statistics(1, 1))));
+  }
+
+  @Test
+  void shouldPrefetchNextPageSoThatItIsServedFromSearchResultCache() throws IOException {
+    var results = journalsNamed(name, 25);
+    mockChannelRegistryResponse(year, NAME_QUERY_PARAM, name, results, DEFAULT_SIZE_INT, 10);
+    mockChannelRegistryResponse(year, NAME_QUERY_PARAM, name, results, DEFAULT_SIZE_INT, 20);
+
+    handlerUnderTest.handleRequest(
+        constructRequest(Map.of("year", year, "query", name, "offset", "10"), MediaType.ANY_TYPE),
+        new ByteArrayOutputStream(),
+        context);
+    handlerUnderTest.handleRequest(
+        constructRequest(Map.of("year", year, "query", name, "offset", "20"), MediaType.ANY_TYPE),
+        output,
+        context);
+
+    var response = GatewayResponse.fromOutputStream(output, PaginatedSearchResult.class);
+    assertThat(getActualSearchResult(response).getHits().size(), is(equalTo(5)));
+    verify(2, getRequestedFor(urlPathEqualTo("/" + customChannelPath + "/channels")));
+    assertThat(
+        handlerUnderTest.searchResultCacheStatistics(),
+        is(equalTo(new ExpiringCache.Statistics(1, 1))));
+  }
+
+  @Test
+  void shouldSearchPageAgainWhenItsPrefetchWasStartedInAnEarlierInvocation() throws IOException {
+    var results = journalsNamed(name, 25);
+    mockChannelRegistryResponse(year, NAME_QUERY_PARAM, name, results, DEFAULT_SIZE_INT, 10);
+    mockChannelRegistryResponse(year, NAME_QUERY_PARAM, name, results, DEFAULT_SIZE_INT, 20);
+    var frozenPrefetches = new ArrayList<Runnable>();
+    var handler =
+        new SearchJournalByQueryHandler(
+            environment, publicationChannelClient, frozenPrefetches::add);
+
+    handler.handleRequest(
+        constructRequest(Map.of("year", year, "query", name, "offset", "10"), MediaType.ANY_TYPE),
+        new ByteArrayOutputStream(),
+        contextOfInvocation("first"));
+    handler.handleRequest(
+        constructRequest(Map.of("year", year, "query", name, "offset", "20"), MediaType.ANY_TYPE),
+        output,
+        contextOfInvocation("second"));
+
+    var response = GatewayResponse.fromOutputStream(output, PaginatedSearchResult.class);
+    assertThat(getActualSearchResult(response).getHits().size(), is(equalTo(5)));
+    assertThat(frozenPrefetches.size(), is(equalTo(1)));
+    verify(2, getRequestedFor(urlPathEqualTo("/" + customChannelPath + "/channels")));
+  }
+
+  @Test
+  void shouldNotPrefetchNextPageWhenFirstPageIsRequested() throws IOException {
+    var results = journalsNamed(name, 25);
+    mockChannelRegistryResponse(year, NAME_QUERY_PARAM, name, results, DEFAULT_SIZE_INT, 0);
+    mockChannelRegistryResponse(year, NAME_QUERY_PARAM, name, results, DEFAULT_SIZE_INT, 10);
+
+    handlerUnderTest.handleRequest(
+        constructRequest(Map.of("year", year, "query", name), MediaType.ANY_TYPE),
+        output,
+        context);
+
+    verify(1, getRequestedFor(urlPathEqualTo("/" + customChannelPath + "/channels")));
+  }
+
+  @Test
+  void shouldScanAllResultsWithCursorReadingEachRegistryPageOnce() throws IOException {
+    var results = journalsNamed(name, 150);
+    mockChannelRegistryResponse(year, NAME_QUERY_PARAM, name, results, 100, 0);
+    mockChannelRegistryResponse(year, NAME_QUERY_PARAM, name, results, 100, 100);
+
+    var hits = new ArrayList<Object>();
+    Map<String, String> queryParameters =
+        Map.of("year", year, "query", name, "size", "40", "cursor", "*");
+    while (nonNull(queryParameters)) {
+      var pageOutput = new ByteArrayOutputStream();
+      handlerUnderTest.handleRequest(
+          constructRequest(queryParameters, MediaType.ANY_TYPE), pageOutput, context);
+      var page =
+          getActualSearchResult(
+              GatewayResponse.fromOutputStream(pageOutput, PaginatedSearchResult.class));
+      hits.addAll(page.getHits());
+      queryParameters =
+          nonNull(page.getNextResults()) ? queryParametersOf(page.getNextResults()) : null;
+    }
+
+    assertThat(hits.size(), is(equalTo(150)));
+    assertThat(hits.stream().distinct().count(), is(equalTo(150L)));
+    verify(2, getRequestedFor(urlPathEqualTo("/" + customChannelPath + "/channels")));
+  }
+
+  @Test
+  void shouldReturnPageSpanningTwoRegistryPagesWhenPagingWithCursor() throws IOException {
+    var results = journalsNamed(name, 150);
+    mockChannelRegistryResponse(year, NAME_QUERY_PARAM, name, results, 100, 0);
+    mockChannelRegistryResponse(year, NAME_QUERY_PARAM, name, results, 100, 100);
+
+    handlerUnderTest.handleRequest(
+        constructRequest(
+            Map.of("year", year, "query", name, "offset", "90", "size", "20", "cursor", "*"),
+            MediaType.ANY_TYPE),
+        output,
+        context);
+
+    var response = GatewayResponse.fromOutputStream(output, PaginatedSearchResult.class);
+    var result = getActualSearchResult(response);
+    assertThat(result.getHits().size(), is(equalTo(20)));
+    assertThat(result.getTotalHits(), is(equalTo(150)));
+    verify(
+        1,
+        getRequestedFor(urlPathEqualTo("/" + customChannelPath + "/channels"))
+            .withQueryParam(CHANNEL_REGISTRY_PAGE_NO_PARAM, WireMock.equalTo("1")));
+  }
+
+  @Test
+  void shouldReturnBadRequestWhenCursorIsInvalid() throws IOException {
+    handlerUnderTest.handleRequest(
+        constructRequest(
+            Map.of("year", year, "query", name, "cursor", "not-a-cursor"), MediaType.ANY_TYPE),
+        output,
+        context);
+
+    var response = GatewayResponse.fromOutputStream(output, Problem.class);
+    assertThat(response.getStatusCode(), is(equalTo(HttpURLConnection.HTTP_BAD_REQUEST)));
+  }
+
+  private static Context contextOfInvocation(String awsRequestId) {
+    var invocationContext = spy(new FakeContext());
+    doReturn(awsRequestId).when(invocationContext).getAwsRequestId();
+    return invocationContext;
+  }
+
+  private static List<String> journalsNamed(String name, int count) {
+    return IntStream.range(0, count)
+        .mapToObj(
+            i ->
+                new TestChannel(year, UUID.randomUUID().toString(), JOURNAL_TYPE)
+                    .withName(name)
+                    .asChannelRegistryResponseBody())
+        .toList();
+  }
+
+  private static Map<String, String> queryParametersOf(URI uri) {
+    return Arrays.stream(uri.getRawQuery().split("&"))
+        .map(parameter -> parameter.split("=", 2))
+        .collect(
+            Collectors.toMap(
+                parameter -> URLDecoder.decode(parameter[0], UTF_8),
+                parameter -> URLDecoder.decode(parameter[1], UTF_8)));
+  }
+
+  private static ChannelRegistryCacheEntry localJournal() {
+    return ChannelRegistryCacheEntry.builder()
+        .withPid(UUID.randomUUID())
+        .withType("Tidsskrift")
+        .withOriginalTitle(LOCAL_TITLE)
+        .withPrintIssn(issn)
+        .withLevelHistory(List.of())
+        .withUri(randomUri().toString())
+        .build();
+  }
 }
@@ -0,0 +1,163 @@
+package no.sikt.nva.pubchannels.handler.suggest;
+
+import static java.net.HttpURLConnection.HTTP_BAD_GATEWAY;
+import static java.net.HttpURLConnection.HTTP_BAD_REQUEST;
+import static java.net.HttpURLConnection.HTTP_OK;
+import static no.sikt.nva.pubchannels.TestConstants.API_DOMAIN;
+import static no.sikt.nva.pubchannels.TestConstants.COGNITO_AUTHORIZER_URLS;
+import static no.sikt.nva.pubchannels.TestConstants.CUSTOM_DOMAIN_BASE_PATH;
+import static no.sikt.nva.pubchannels.TestConstants.WILD_CARD;
+import static no.unit.nva.commons.json.JsonUtils.dtoObjectMapper;
+import static no.unit.nva.testutils.RandomDataGenerator.randomUri;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+import no.sikt.nva.pubchannels.channelregistrycache.ChannelRegistryCacheEntry;
+import no.sikt.nva.pubchannels.channelregistrycache.search.LocalSearchIndex;
+import no.unit.nva.stubs.FakeContext;
+import no.unit.nva.testutils.HandlerRequestBuilder;
+import nva.commons.apigateway.GatewayResponse;
+import nva.commons.core.Environment;
+import nva.commons.core.paths.UriWrapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.zalando.problem.Problem;
+
+class SuggestPublicationChannelsHandlerTest {
+
+  private static final FakeContext CONTEXT = new FakeContext();
+  private static final UUID JOURNAL_IDENTIFIER = UUID.randomUUID();
+  private static Environment environment;
+  private SuggestPublicationChannelsHandler handlerUnderTest;
+  private ByteArrayOutputStream output;
+
+  @BeforeAll
+  static void beforeAll() {
+    environment = Mockito.mock(Environment.class);
+    when(environment.readEnv("ALLOWED_ORIGIN")).thenReturn(WILD_CARD);
+    when(environment.readEnv("API_DOMAIN")).thenReturn(API_DOMAIN);
+    when(environment.readEnv("CUSTOM_DOMAIN_BASE_PATH")).thenReturn(CUSTOM_DOMAIN_BASE_PATH);
+    when(environment.readEnv("API_HOST")).thenReturn(API_DOMAIN);
+    when(environment.readEnv("COGNITO_AUTHORIZER_URLS")).thenReturn(COGNITO_AUTHORIZER_URLS);
+  }
+
+  @BeforeEach
+  void setUp() {
+    var index =
+        LocalSearchIndex.build(
+            Stream.of(
+                entry(JOURNAL_IDENTIFIER, "Tidsskrift", "Nature Communications"),
+                entry(UUID.randomUUID(), "Tidsskrift", "Nature"),
+                entry(UUID.randomUUID(), "Tidsskrift", "Natural Hazards"),
+                entry(UUID.randomUUID(), "Serie", "Nature Series"),
+                entry(UUID.randomUUID(), "Tidsskrift", "Science")));
+    handlerUnderTest = new SuggestPublicationChannelsHandler(environment, () -> index);
+    output = new ByteArrayOutputStream();
+  }
+
+  @Test
+  void shouldReturnChannelsOfRequestedTypeStartingWithPrefixInTitleOrder() throws IOException {
+    handlerUnderTest.handleRequest(constructRequest("journal", "natur", null), output, CONTEXT);
+
+    var response = GatewayResponse.fromOutputStream(output, SuggestionsDto.class);
+    assertThat(response.getStatusCode(), is(equalTo(HTTP_OK)));
+    var names =
+        response.getBodyObject(SuggestionsDto.class).suggestions().stream()
+            .map(SuggestionDto::name)
+            .toList();
+    assertThat(names, contains("Natural Hazards", "Nature", "Nature Communications"));
+  }
+
+  @Test
+  void shouldReturnNoMoreSuggestionsThanRequested() throws IOException {
+    handlerUnderTest.handleRequest(constructRequest("journal", "nature", "1"), output, CONTEXT);
+
+    var suggestions =
+        GatewayResponse.fromOutputStream(output, SuggestionsDto.class)
+            .getBodyObject(SuggestionsDto.class)
+            .suggestions();
+    assertThat(suggestions.stream().map(SuggestionDto::name).toList(), contains("Nature"));
+  }
+
+  @Test
+  void shouldReturnIdOfSuggestedChannel() throws IOException {
+    handlerUnderTest.handleRequest(
+        constructRequest("journal", "nature comm", null), output, CONTEXT);
+
+    var suggestion =
+        GatewayResponse.fromOutputStream(output, SuggestionsDto.class)
+            .getBodyObject(SuggestionsDto.class)
+            .suggestions()
+            .getFirst();
+    var expectedId =
+        UriWrapper.fromHost(API_DOMAIN)
+            .addChild(CUSTOM_DOMAIN_BASE_PATH, "journal", JOURNAL_IDENTIFIER.toString())
+            .getUri();
+    assertThat(suggestion.id(), is(equalTo(expectedId)));
+    assertThat(suggestion.type(), is(equalTo("Journal")));
+  }
+
+  @Test
+  void shouldReturnBadRequestWhenSizeIsOutOfRange() throws IOException {
+    handlerUnderTest.handleRequest(constructRequest("journal", "nature", "51"), output, CONTEXT);
+
+    var response = GatewayResponse.fromOutputStream(output, Problem.class);
+    assertThat(response.getStatusCode(), is(equalTo(HTTP_BAD_REQUEST)));
+  }
+
+  @Test
+  void shouldReturnBadRequestWhenTypeIsUnknown() throws IOException {
+    handlerUnderTest.handleRequest(constructRequest("magazine", "nature", null), output, CONTEXT);
+
+    var response = GatewayResponse.fromOutputStream(output, Problem.class);
+    assertThat(response.getStatusCode(), is(equalTo(HTTP_BAD_REQUEST)));
+  }
+
+  @Test
+  void shouldReturnBadGatewayWhenIndexCannotBeLoaded() throws IOException {
+    var handler =
+        new SuggestPublicationChannelsHandler(
+            environment,
+            () -> {
+              throw new IllegalStateException("Missing export");
+            });
+
+    handler.handleRequest(constructRequest("journal", "nature", null), output, CONTEXT);
+
+    var response = GatewayResponse.fromOutputStream(output, Problem.class);
+    assertThat(response.getStatusCode(), is(equalTo(HTTP_BAD_GATEWAY)));
+  }
+
+  private static ChannelRegistryCacheEntry entry(UUID pid, String type, String title) {
+    return ChannelRegistryCacheEntry.builder()
+        .withPid(pid)
+        .withType(type)
+        .withOriginalTitle(title)
+        .withLevelHistory(List.of())
+        .withUri(randomUri().toString())
+        .build();
+  }
+
+  private static InputStream constructRequest(String type, String prefix, String size)
+      throws JsonProcessingException {
+    var queryParameters =
+        size == null ? Map.of("prefix", prefix) : Map.of("prefix", prefix, "size", size);
+    return new HandlerRequestBuilder<Void>(dtoObjectMapper)
+        .withPathParameters(Map.of("type", type))
+        .withQueryParameters(queryParameters)
+        .build();
+  }
+}
@@ -0,0 +1,67 @@
+package no.sikt.nva.pubchannels.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+
+class ExpiringCacheTest {
+
+  private static final Instant NOW = Instant.parse("2025-01-01T12:00:00Z");
+  private static final Duration TIME_TO_LIVE = Duration.ofSeconds(300);
+
+  @Test
+  void shouldReturnCachedValueAndCountHitsAndMisses() {
+    var cache = new ExpiringCache<String, String>(10, TIME_TO_LIVE, new MutableClock(NOW));
+
+    assertTrue(cache.get("key").isEmpty());
+    cache.put("key", "value");
+
+    assertEquals(Optional.of("value"), cache.get("key"));
+    assertEquals(new ExpiringCache.Statistics(1, 1), cache.statistics());
+    assertEquals(0.5, cache.statistics().hitRate());
+  }
+
+  @Test
+  void shouldNotReturnValueWhenTimeToLiveHasPassed() {
+    var clock = new MutableClock(NOW);
+    var cache = new ExpiringCache<String, String>(10, TIME_TO_LIVE, clock);
+
+    cache.put("key", "value");
+    clock.advance(TIME_TO_LIVE);
+
+    assertTrue(cache.get("key").isEmpty());
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  void shouldTellWhetherKeyIsCachedWithoutCountingLookup() {
+    var clock = new MutableClock(NOW);
+    var cache = new ExpiringCache<String, String>(10, TIME_TO_LIVE, clock);
+
+    cache.put("key", "value");
+
+    assertTrue(cache.contains("key"));
+    clock.advance(TIME_TO_LIVE);
+    assertFalse(cache.contains("key"));
+    assertEquals(new ExpiringCache.Statistics(0, 0), cache.statistics());
+  }
+
+  @Test
+  void shouldEvictLeastRecentlyUsedEntryWhenFull() {
+    var cache = new ExpiringCache<String, String>(2, TIME_TO_LIVE, new MutableClock(NOW));
+
+    cache.put("first", "1");
+    cache.put("second", "2");
+    cache.get("first");
+    cache.put("third", "3");
+
+    assertTrue(cache.get("second").isEmpty());
+    assertEquals(Optional.of("1"), cache.get("first"));
+    assertEquals(Optional.of("3"), cache.get("third"));
+  }
+}
@@ -3,13 +3,24 @@ package no.sikt.nva.pubchannels.utils;
 public class FakeAppConfig implements AppConfig {
 
   private final boolean cacheEnabled;
+  private final boolean localSearchEnabled;
 
   public FakeAppConfig(boolean cacheEnabled) {
+    this(cacheEnabled, false);
+  }
+
+  public FakeAppConfig(boolean cacheEnabled, boolean localSearchEnabled) {
     this.cacheEnabled = cacheEnabled;
+    this.localSearchEnabled = localSearchEnabled;
   }
 
   @Override
   public boolean shouldUseCache() {
     return cacheEnabled;
   }
+
+  @Override
+  public boolean shouldUseLocalSearch() {
+    return localSearchEnabled;
+  }
 }
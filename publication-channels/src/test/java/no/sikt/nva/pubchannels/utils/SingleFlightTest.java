@@ -0,0 +1,93 @@
+package no.sikt.nva.pubchannels.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import no.sikt.nva.pubchannels.utils.SingleFlight.Loader;
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTest {
+
+  private static final String KEY = "key";
+
+  @Test
+  void shouldShareResultOfInFlightLoadWithConcurrentCaller() throws Exception {
+    var singleFlight = new SingleFlight<String, String>();
+    var loads = new AtomicInteger();
+    var loadStarted = new CountDownLatch(1);
+    var releaseLoad = new CountDownLatch(1);
+
+    var leader =
+        startCaller(
+            singleFlight,
+            () -> {
+              loads.incrementAndGet();
+              loadStarted.countDown();
+              releaseLoad.await();
+              return "value";
+            });
+    loadStarted.await();
+    var follower =
+        startCaller(
+            singleFlight,
+            () -> {
+              loads.incrementAndGet();
+              return "other";
+            });
+    awaitWaiting(follower.thread());
+    releaseLoad.countDown();
+
+    assertEquals("value", leader.result().get());
+    assertEquals("value", follower.result().get());
+    assertEquals(1, loads.get());
+    assertEquals(0, singleFlight.inFlightCount());
+  }
+
+  @Test
+  void shouldThrowSameExceptionToConcurrentCallers() throws Exception {
+    var singleFlight = new SingleFlight<String, String>();
+    var failure = new IOException("failed");
+    var loadStarted = new CountDownLatch(1);
+    var releaseLoad = new CountDownLatch(1);
+
+    var leader =
+        startCaller(
+            singleFlight,
+            () -> {
+              loadStarted.countDown();
+              releaseLoad.await();
+              throw failure;
+            });
+    loadStarted.await();
+    var follower = startCaller(singleFlight, () -> "other");
+    awaitWaiting(follower.thread());
+    releaseLoad.countDown();
+
+    var leaderException = assertThrows(ExecutionException.class, leader.result()::get);
+    var followerException = assertThrows(ExecutionException.class, follower.result()::get);
+    assertSame(failure, leaderException.getCause());
+    assertSame(failure, followerException.getCause());
+  }
+
+  private static Caller startCaller(
+      SingleFlight<String, String> singleFlight, Loader<String, Exception> loader) {
+    var result = new FutureTask<String>(() -> singleFlight.execute(KEY, loader));
+    var thread = new Thread(result);
+    thread.start();
+    return new Caller(thread, result);
+  }
+
+  private static void awaitWaiting(Thread thread) throws InterruptedException {
+    while (thread.getState() != Thread.State.WAITING) {
+      Thread.sleep(1);
+    }
+  }
+
+  private record Caller(Thread thread, FutureTask<String> result) {}
+}